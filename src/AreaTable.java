@@ -0,0 +1,653 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Keeps track of which areas have been connected to each other, using a disjoint-set forest with path compression and
+ * union by size. The tiles store the area they were assigned when they were placed, which never changes afterwards.
+ * If a tile connects two areas, they are merged by a union instead of rewriting the areas of all tiles of one of them,
+ * and the area a point belongs to is the representative (root) of the set its stored area is part of.
+ * <p>
+ * For each root, a record of the feature is kept up to date: the tiles it covers, the number of pennants, the number
+ * of open edges and the number of meeples of each player. The records of two areas are combined when they are merged,
+ * such that completion and ownership of a feature can be looked up without traversing the board.
+ * <p>
+ * For end-of-game scoring, each city keeps a linked list of the fields it borders. Once a city is completed, it gets
+ * the next completed-city index and the bit of that index is set in the bitset of each of those fields, such that the
+ * number of completed cities next to a field is a population count.
+ * <p>
+ * Finally, the points which each player would get for the unfinished features if the game ended now are kept up to
+ * date. Whenever the record of a root changes, its old contribution is subtracted and its new one added.
+ * <p>
+ * All tables are paged, such that copies share them with the original. If a journal is attached, all changes are
+ * recorded in it, such that they can be reverted by GameState.undo().
+ */
+class AreaTable {
+
+    /**
+     *  The parent of each area in the disjoint-set forest. An area is a root if it is its own parent.
+     */
+    private final PagedIntArray parents;
+
+    /**
+     *  The number of areas in the set of each root.
+     */
+    private final PagedIntArray sizes;
+
+    /**
+     *  The type of each area: 0 field, 1 city, 2 road, 4 monastery.
+     */
+    private final PagedIntArray types;
+
+    /**
+     *  The placement indices of the tiles covered by each root as a bitset of TILE_WORDS ints per area. For a
+     *  monastery these are the tiles in its 3x3 neighbourhood, since those are the tiles it scores for.
+     */
+    private final PagedIntArray tiles;
+
+    /**
+     *  The number of pennants in each root.
+     */
+    private final PagedIntArray pennants;
+
+    /**
+     *  The number of edges of each root which don't border another tile yet. Only maintained for cities and roads.
+     */
+    private final PagedIntArray openEdges;
+
+    /**
+     *  The number of meeples of each player in each root, two entries per area.
+     */
+    private final PagedIntArray meeples;
+
+    /**
+     *  The index of each city root in the order in which the cities have been completed or -1 if it isn't completed.
+     */
+    private final PagedIntArray completedCityIndices;
+
+    /**
+     *  The indices of the completed cities next to each field root as a bitset of CITY_WORDS ints per area.
+     */
+    private final PagedIntArray adjacentCities;
+
+    /**
+     *  The first and the last entry of the list of fields next to each city root, -1 if there is none.
+     */
+    private final PagedIntArray firstAdjacencies;
+    private final PagedIntArray lastAdjacencies;
+
+    /**
+     *  The field and the next entry of each entry of the adjacency lists.
+     */
+    private final PagedIntArray adjacentFields;
+    private final PagedIntArray nextAdjacencies;
+
+    /**
+     *  The points each player would get at the end of the game for the features as they are now, two entries.
+     */
+    private final PagedIntArray projectedScores;
+
+    private static final int TILE_WORDS = (Board.MAX_TILES + 31) / 32;
+
+    /**
+     *  Each completed city covers at least two tiles with a city, so there can't be more than 64 of them.
+     */
+    private static final int CITY_WORDS = 2;
+
+    /**
+     *  The counters which can be restored by restoreCounter().
+     */
+    static final int NUM_AREAS = 0;
+    static final int NUM_ADJACENCIES = 1;
+    static final int NUM_COMPLETED_CITIES = 2;
+
+    private int numAreas;
+    private int numAdjacencies;
+    private int numCompletedCities;
+
+    private UndoLog journal;
+
+    AreaTable() {
+        parents = new PagedIntArray(-1);
+        sizes = new PagedIntArray(0);
+        types = new PagedIntArray(-1);
+        tiles = new PagedIntArray(0);
+        pennants = new PagedIntArray(0);
+        openEdges = new PagedIntArray(0);
+        meeples = new PagedIntArray(0);
+        completedCityIndices = new PagedIntArray(-1);
+        adjacentCities = new PagedIntArray(0);
+        firstAdjacencies = new PagedIntArray(-1);
+        lastAdjacencies = new PagedIntArray(-1);
+        adjacentFields = new PagedIntArray(-1);
+        nextAdjacencies = new PagedIntArray(-1);
+        projectedScores = new PagedIntArray(0);
+        numAreas = 0;
+        numAdjacencies = 0;
+        numCompletedCities = 0;
+    }
+
+    /**
+     * Copy constructor. The tables are shared with the given area table until either of them modifies them.
+     * @param table The area table to be copied.
+     */
+    AreaTable(AreaTable table) {
+        parents = new PagedIntArray(table.parents);
+        sizes = new PagedIntArray(table.sizes);
+        types = new PagedIntArray(table.types);
+        tiles = new PagedIntArray(table.tiles);
+        pennants = new PagedIntArray(table.pennants);
+        openEdges = new PagedIntArray(table.openEdges);
+        meeples = new PagedIntArray(table.meeples);
+        completedCityIndices = new PagedIntArray(table.completedCityIndices);
+        adjacentCities = new PagedIntArray(table.adjacentCities);
+        firstAdjacencies = new PagedIntArray(table.firstAdjacencies);
+        lastAdjacencies = new PagedIntArray(table.lastAdjacencies);
+        adjacentFields = new PagedIntArray(table.adjacentFields);
+        nextAdjacencies = new PagedIntArray(table.nextAdjacencies);
+        projectedScores = new PagedIntArray(table.projectedScores);
+        numAreas = table.numAreas;
+        numAdjacencies = table.numAdjacencies;
+        numCompletedCities = table.numCompletedCities;
+    }
+
+    /**
+     * Turns the given table into a copy of this one, reusing its arrays. The tables are shared afterwards, just like
+     * after the copy constructor.
+     * @param target The area table to be overwritten.
+     */
+    void copyInto(AreaTable target) {
+        parents.copyInto(target.parents);
+        sizes.copyInto(target.sizes);
+        types.copyInto(target.types);
+        tiles.copyInto(target.tiles);
+        pennants.copyInto(target.pennants);
+        openEdges.copyInto(target.openEdges);
+        meeples.copyInto(target.meeples);
+        completedCityIndices.copyInto(target.completedCityIndices);
+        adjacentCities.copyInto(target.adjacentCities);
+        firstAdjacencies.copyInto(target.firstAdjacencies);
+        lastAdjacencies.copyInto(target.lastAdjacencies);
+        adjacentFields.copyInto(target.adjacentFields);
+        nextAdjacencies.copyInto(target.nextAdjacencies);
+        projectedScores.copyInto(target.projectedScores);
+        target.numAreas = numAreas;
+        target.numAdjacencies = numAdjacencies;
+        target.numCompletedCities = numCompletedCities;
+    }
+
+    /**
+     * Reads an area table which has been written by writeTo(), starting at the position of the buffer and advancing
+     * it past the table.
+     * @param buffer The buffer to read from.
+     */
+    AreaTable(ByteBuffer buffer) {
+        this();
+
+        numAreas = buffer.getShort();
+        numAdjacencies = buffer.getShort();
+        numCompletedCities = buffer.get();
+
+        if (numAreas < 0 || numAdjacencies < 0 || numCompletedCities < 0 || numCompletedCities > CITY_WORDS * 32) {
+            throw new IllegalArgumentException("Invalid area table.");
+        }
+
+        for (int area = 0; area < numAreas; area++) {
+            parents.set(area, buffer.getShort());
+            sizes.set(area, buffer.getShort());
+            types.set(area, buffer.get());
+
+            for (int i = 0; i < TILE_WORDS; i++) {
+                tiles.set(area * TILE_WORDS + i, buffer.getInt());
+            }
+
+            pennants.set(area, buffer.get());
+            openEdges.set(area, buffer.getShort());
+            meeples.set(area * 2, buffer.get());
+            meeples.set(area * 2 + 1, buffer.get());
+            completedCityIndices.set(area, buffer.get());
+
+            for (int i = 0; i < CITY_WORDS; i++) {
+                adjacentCities.set(area * CITY_WORDS + i, buffer.getInt());
+            }
+
+            firstAdjacencies.set(area, buffer.getShort());
+            lastAdjacencies.set(area, buffer.getShort());
+        }
+
+        for (int adjacency = 0; adjacency < numAdjacencies; adjacency++) {
+            adjacentFields.set(adjacency, buffer.getShort());
+            nextAdjacencies.set(adjacency, buffer.getShort());
+        }
+
+        projectedScores.set(0, buffer.getInt());
+        projectedScores.set(1, buffer.getInt());
+    }
+
+    /**
+     * Writes the counters and the entries of all areas and adjacencies which have been created, such that the
+     * constructor taking a buffer restores exactly the same table. Since there are fewer than 2^15 areas and
+     * adjacencies, indices are written as shorts and small counts as bytes.
+     * @param buffer The buffer to write to, which must have getEncodedSize() bytes remaining.
+     */
+    void writeTo(ByteBuffer buffer) {
+        buffer.putShort((short) numAreas);
+        buffer.putShort((short) numAdjacencies);
+        buffer.put((byte) numCompletedCities);
+
+        for (int area = 0; area < numAreas; area++) {
+            buffer.putShort((short) parents.get(area));
+            buffer.putShort((short) sizes.get(area));
+            buffer.put((byte) types.get(area));
+
+            for (int i = 0; i < TILE_WORDS; i++) {
+                buffer.putInt(tiles.get(area * TILE_WORDS + i));
+            }
+
+            buffer.put((byte) pennants.get(area));
+            buffer.putShort((short) openEdges.get(area));
+            buffer.put((byte) meeples.get(area * 2));
+            buffer.put((byte) meeples.get(area * 2 + 1));
+            buffer.put((byte) completedCityIndices.get(area));
+
+            for (int i = 0; i < CITY_WORDS; i++) {
+                buffer.putInt(adjacentCities.get(area * CITY_WORDS + i));
+            }
+
+            buffer.putShort((short) firstAdjacencies.get(area));
+            buffer.putShort((short) lastAdjacencies.get(area));
+        }
+
+        for (int adjacency = 0; adjacency < numAdjacencies; adjacency++) {
+            buffer.putShort((short) adjacentFields.get(adjacency));
+            buffer.putShort((short) nextAdjacencies.get(adjacency));
+        }
+
+        buffer.putInt(projectedScores.get(0));
+        buffer.putInt(projectedScores.get(1));
+    }
+
+    /**
+     * @return The number of bytes written by writeTo().
+     */
+    int getEncodedSize() {
+        return getEncodedSize(numAreas, numAdjacencies);
+    }
+
+    /**
+     * @param numAreas The number of areas of a table.
+     * @param numAdjacencies The number of adjacencies of the table.
+     * @return The number of bytes written by writeTo() for the table.
+     */
+    static int getEncodedSize(int numAreas, int numAdjacencies) {
+        return 5 + numAreas * (15 + 4 * TILE_WORDS + 4 * CITY_WORDS) + numAdjacencies * 4 + 8;
+    }
+
+    void setJournal(UndoLog journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Creates a new area which isn't connected to any other area.
+     * @param type The type of the area.
+     * @return The new area.
+     */
+    int newArea(int type) {
+        int area = numAreas;
+
+        recordCounter(NUM_AREAS, numAreas);
+        numAreas++;
+        write(parents, area, area);
+        write(sizes, area, 1);
+        write(types, area, type);
+
+        return area;
+    }
+
+    /**
+     * @param area Any area, including those which have been merged into other areas.
+     * @return The root of the set the area belongs to, which identifies the connected area.
+     */
+    int find(int area) {
+        int root = area;
+
+        while (parents.get(root) != root) {
+            root = parents.get(root);
+        }
+
+        // Path compression: all areas on the path are attached to the root directly.
+        while (area != root) {
+            int parent = parents.get(area);
+
+            if (parent != root) {
+                write(parents, area, root);
+            }
+
+            area = parent;
+        }
+
+        return root;
+    }
+
+    /**
+     * Merges the sets of two areas. The smaller set is attached to the root of the larger set, whose record then
+     * covers both areas.
+     * @return The root of the merged set.
+     */
+    int union(int area1, int area2) {
+        int root1 = find(area1);
+        int root2 = find(area2);
+
+        if (root1 == root2) {
+            return root1;
+        }
+
+        if (sizes.get(root1) < sizes.get(root2)) {
+            int temp = root1;
+            root1 = root2;
+            root2 = temp;
+        }
+
+        project(root1, -1);
+        project(root2, -1);
+
+        write(parents, root2, root1);
+        write(sizes, root1, sizes.get(root1) + sizes.get(root2));
+
+        for (int i = 0; i < TILE_WORDS; i++) {
+            int words = tiles.get(root1 * TILE_WORDS + i) | tiles.get(root2 * TILE_WORDS + i);
+
+            if (words != tiles.get(root1 * TILE_WORDS + i)) {
+                write(tiles, root1 * TILE_WORDS + i, words);
+            }
+        }
+
+        add(pennants, root1, pennants.get(root2));
+        add(openEdges, root1, openEdges.get(root2));
+        add(meeples, root1 * 2, meeples.get(root2 * 2));
+        add(meeples, root1 * 2 + 1, meeples.get(root2 * 2 + 1));
+
+        for (int i = 0; i < CITY_WORDS; i++) {
+            int words = adjacentCities.get(root1 * CITY_WORDS + i) | adjacentCities.get(root2 * CITY_WORDS + i);
+
+            if (words != adjacentCities.get(root1 * CITY_WORDS + i)) {
+                write(adjacentCities, root1 * CITY_WORDS + i, words);
+            }
+        }
+
+        // The list of adjacent fields of the attached root is appended to the one of the remaining root.
+        if (firstAdjacencies.get(root2) != -1) {
+            if (firstAdjacencies.get(root1) == -1) {
+                write(firstAdjacencies, root1, firstAdjacencies.get(root2));
+            } else {
+                write(nextAdjacencies, lastAdjacencies.get(root1), firstAdjacencies.get(root2));
+            }
+
+            write(lastAdjacencies, root1, lastAdjacencies.get(root2));
+        }
+
+        project(root1, 1);
+
+        return root1;
+    }
+
+    /**
+     * @return True if the area hasn't been merged into another area.
+     */
+    boolean isRoot(int area) {
+        return parents.get(area) == area;
+    }
+
+    int getType(int area) {
+        return types.get(area);
+    }
+
+    /**
+     * Marks a tile as covered by an area. Adding the same tile more than once has no effect.
+     * @param area Any area.
+     * @param index The index of the tile in placement order.
+     */
+    void addTile(int area, int index) {
+        int root = find(area);
+        int word = root * TILE_WORDS + (index >>> 5);
+        int value = tiles.get(word) | (1 << (index & 31));
+
+        if (value != tiles.get(word)) {
+            project(root, -1);
+            write(tiles, word, value);
+            project(root, 1);
+        }
+    }
+
+    void addPennant(int area) {
+        add(pennants, find(area), 1);
+    }
+
+    /**
+     * @param area Any area.
+     * @param delta The change of the number of open edges, which is negative if edges have been closed.
+     */
+    void addOpenEdges(int area, int delta) {
+        add(openEdges, find(area), delta);
+    }
+
+    /**
+     * @param area Any area.
+     * @param player The ID of the player who placed or lost the meeple.
+     * @param delta 1 if a meeple has been placed, -1 if it has been removed.
+     */
+    void addMeeple(int area, int player, int delta) {
+        int root = find(area);
+
+        project(root, -1);
+        add(meeples, root * 2 + player - 1, delta);
+        project(root, 1);
+    }
+
+    /**
+     * Records that a field borders a city.
+     * @param city Any area of the city.
+     * @param field Any area of the field.
+     */
+    void addAdjacency(int city, int field) {
+        int root = find(city);
+        int adjacency = numAdjacencies;
+
+        recordCounter(NUM_ADJACENCIES, numAdjacencies);
+        numAdjacencies++;
+
+        write(adjacentFields, adjacency, field);
+
+        if (firstAdjacencies.get(root) == -1) {
+            write(firstAdjacencies, root, adjacency);
+        } else {
+            write(nextAdjacencies, lastAdjacencies.get(root), adjacency);
+        }
+
+        write(lastAdjacencies, root, adjacency);
+
+        if (completedCityIndices.get(root) != -1) {
+            addAdjacentCity(field, completedCityIndices.get(root));
+        }
+    }
+
+    /**
+     * Marks a city as completed and adds it to the adjacent cities of all fields it borders. Completing a city more
+     * than once has no effect.
+     * @param area Any area of the city.
+     */
+    void completeCity(int area) {
+        int root = find(area);
+
+        if (completedCityIndices.get(root) != -1) {
+            return;
+        }
+
+        int index = numCompletedCities;
+
+        recordCounter(NUM_COMPLETED_CITIES, numCompletedCities);
+        numCompletedCities++;
+
+        write(completedCityIndices, root, index);
+
+        for (int adjacency = firstAdjacencies.get(root); adjacency != -1; adjacency = nextAdjacencies.get(adjacency)) {
+            addAdjacentCity(adjacentFields.get(adjacency), index);
+        }
+    }
+
+    private void addAdjacentCity(int field, int index) {
+        int root = find(field);
+        int word = root * CITY_WORDS + (index >>> 5);
+        int value = adjacentCities.get(word) | (1 << (index & 31));
+
+        if (value != adjacentCities.get(word)) {
+            project(root, -1);
+            write(adjacentCities, word, value);
+            project(root, 1);
+        }
+    }
+
+    boolean isCompletedCity(int area) {
+        return completedCityIndices.get(find(area)) != -1;
+    }
+
+    /**
+     * @param area Any area of a field.
+     * @return The number of distinct completed cities which the field borders.
+     */
+    int getNumAdjacentCompletedCities(int area) {
+        int root = find(area);
+        int numCities = 0;
+
+        for (int i = 0; i < CITY_WORDS; i++) {
+            numCities += Integer.bitCount(adjacentCities.get(root * CITY_WORDS + i));
+        }
+
+        return numCities;
+    }
+
+    /**
+     * @return The number of distinct tiles covered by the area.
+     */
+    int getNumTiles(int area) {
+        int root = find(area);
+        int numTiles = 0;
+
+        for (int i = 0; i < TILE_WORDS; i++) {
+            numTiles += Integer.bitCount(tiles.get(root * TILE_WORDS + i));
+        }
+
+        return numTiles;
+    }
+
+    int getNumPennants(int area) {
+        return pennants.get(find(area));
+    }
+
+    int getNumOpenEdges(int area) {
+        return openEdges.get(find(area));
+    }
+
+    int getNumMeeples(int area, int player) {
+        return meeples.get(find(area) * 2 + player - 1);
+    }
+
+    /**
+     * @param area Any area.
+     * @param player The ID of the player.
+     * @return True if the player has at least as many meeples in the area as the other player and at least one.
+     */
+    boolean isOwner(int area, int player) {
+        int root = find(area);
+        int numMeeples = meeples.get(root * 2 + player - 1);
+
+        return numMeeples > 0 && numMeeples >= meeples.get(root * 2 + 2 - player);
+    }
+
+    /**
+     * @param root A root.
+     * @return The points which the owners of the area get at the end of the game: 3 per adjacent completed city for
+     * fields and 1 per tile for cities, roads and monasteries.
+     */
+    private int getEndOfGamePoints(int root) {
+        int type = types.get(root);
+
+        if (type == 0) {
+            return getNumAdjacentCompletedCities(root) * 3;
+        } else if (type == 1 || type == 2 || type == 4) {
+            return getNumTiles(root);
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Adds the end-of-game points of a root to the projected scores of its owners or subtracts them.
+     * @param root A root.
+     * @param sign 1 to add the points, -1 to subtract them.
+     */
+    private void project(int root, int sign) {
+        for (int player = 1; player <= 2; player++) {
+            if (isOwner(root, player)) {
+                add(projectedScores, player - 1, sign * getEndOfGamePoints(root));
+            }
+        }
+    }
+
+    /**
+     * @param player The ID of the player.
+     * @return The points the player would get for the unfinished features if the game ended now.
+     */
+    int getProjectedScore(int player) {
+        return projectedScores.get(player - 1);
+    }
+
+    /**
+     * @return The number of areas which have been created, i.e., all areas are smaller than this number.
+     */
+    int getNumAreas() {
+        return numAreas;
+    }
+
+    /**
+     * @param counter NUM_AREAS, NUM_ADJACENCIES or NUM_COMPLETED_CITIES.
+     * @param value The value the counter is set to.
+     */
+    void restoreCounter(int counter, int value) {
+        switch (counter) {
+            case NUM_AREAS: {
+                numAreas = value;
+                break;
+            }
+            case NUM_ADJACENCIES: {
+                numAdjacencies = value;
+                break;
+            }
+            case NUM_COMPLETED_CITIES: {
+                numCompletedCities = value;
+                break;
+            }
+            default: {
+                throw new IllegalArgumentException("Unknown counter.");
+            }
+        }
+    }
+
+    private void recordCounter(int counter, int value) {
+        if (journal != null && journal.isRecording()) {
+            journal.record(UndoLog.AREA_COUNTER, this, counter, value);
+        }
+    }
+
+    private void add(PagedIntArray array, int index, int delta) {
+        if (delta != 0) {
+            write(array, index, array.get(index) + delta);
+        }
+    }
+
+    private void write(PagedIntArray array, int index, int value) {
+        if (journal != null && journal.isRecording()) {
+            journal.record(UndoLog.INT_ARRAY, array, index, array.get(index));
+        }
+
+        array.set(index, value);
+    }
+}
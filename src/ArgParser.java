@@ -1,9 +1,13 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 public class ArgParser {
     private long deckRandomSeed;
+    private Position position;
 
     public Player[] assignPlayers(String[] args) {
         String p1Type                   = "human";
@@ -35,7 +39,10 @@ public class ArgParser {
         boolean p2deckcheat             = false;
 
         for (int i = 0; i < args.length; i++) {
-            args[i] = args[i].toLowerCase();
+            // File names are case-sensitive.
+            if (i == 0 || !args[i - 1].equals("--position")) {
+                args[i] = args[i].toLowerCase();
+            }
         }
 
         // This is the case if the arguments are passed by Python using a list. In that case we need to convert the
@@ -80,6 +87,9 @@ public class ArgParser {
                     case "--deckseed":
                         this.deckRandomSeed = Long.parseLong(val);
                         break;
+                    case "--position":
+                        position = readPosition(args[i + 1]);
+                        break;
                     case "--p1explorationterm":
                     case "--p1explorationconstant":
                         p1ExplorationTerm = Float.parseFloat(val);
@@ -266,5 +276,25 @@ public class ArgParser {
     public long getDeckRandomSeed() {
         return deckRandomSeed;
     }
+
+    /**
+     * @return The position from which the game starts or null if it starts from the beginning.
+     */
+    Position getPosition() {
+        return position;
+    }
+
+    private static Position readPosition(String fileName) {
+        try {
+            return Position.parse(Files.readString(Path.of(fileName)));
+        } catch (IOException e) {
+            Engine.printError("Error: Can't read the position " + fileName + ".");
+        } catch (IllegalArgumentException e) {
+            Engine.printError("Error: Invalid position. " + e.getMessage());
+        }
+
+        System.exit(1);
+        return null;
+    }
 }
 
@@ -0,0 +1,458 @@
+import java.util.Arrays;
+
+/**
+ * The grid on which the tiles are placed. Instead of growing a list of rows whenever a tile is placed on the edge of
+ * the board, the grid has enough room for every tile of the deck to be placed in a straight line in any direction
+ * from the starting tile. Cells are therefore addressed by absolute coordinates and never shift. The bounding box of
+ * all placed tiles is cached, such that the relative coordinates used by the rest of the program (with the top left
+ * tile of the board at (0, 0)) can be translated in constant time.
+ * <p>
+ * Copies of a board share their rows and tiles with the original (structural sharing). A row or tile is only copied
+ * when one of the boards sharing it is about to modify it, such that a copy costs O(SIZE) instead of O(board) and
+ * only the changed rows and tiles take up additional memory.
+ * <p>
+ * In addition to the tiles, each row of the grid is encoded as bitboards (bitsets of the cells of the row, WORDS longs
+ * per row and plane): one plane of the occupied cells and, for each side of a cell and each edge type, a plane of the
+ * cells whose neighbour on that side has that type of edge facing the cell. The cells on which a tile fits in a given
+ * rotation can therefore be computed for 64 cells at once with a handful of bitwise operations (see getLegalCells()).
+ * The planes of a row are shared between copies in the same way as the tiles of the row.
+ */
+public class Board {
+
+    /**
+     *  The maximal number of tiles which can be on the board, i.e., the starting tile plus the whole deck.
+     */
+    static final int MAX_TILES = 72;
+
+    /**
+     *  The width and height of the grid. The starting tile is placed in the centre, such that a line of all the
+     *  remaining tiles fits in each direction.
+     */
+    static final int SIZE = 2 * MAX_TILES + 1;
+
+    static final int CENTRE = MAX_TILES;
+
+    /**
+     *  A row without any tiles, which is shared by all rows that have never been written to.
+     */
+    private static final short[] EMPTY_ROW = new short[SIZE];
+
+    /**
+     *  The number of longs needed for one plane of a row.
+     */
+    static final int WORDS = (SIZE + 63) / 64;
+
+    /**
+     *  The plane of the occupied cells, followed by the edge planes (see getEdgePlane()).
+     */
+    private static final int OCCUPIED = 0;
+    private static final int NUM_PLANES = 1 + 4 * 3;
+
+    private static final long[] EMPTY_PLANES = new long[NUM_PLANES * WORDS];
+
+    /**
+     *  The rows of the grid. Each cell holds the index of its tile in the tiles array plus 1, or 0 if the cell is
+     *  empty.
+     */
+    private final short[][] rows;
+
+    /**
+     *  The bitboards of each row, with WORDS longs per plane.
+     */
+    private final long[][] planes;
+
+    /**
+     *  One bit per row or tile, which is set if the row or tile belongs to this board exclusively and can therefore
+     *  be modified in place.
+     */
+    private final long[] ownedRows;
+    private final long[] ownedPlanes;
+    private final long[] ownedTiles;
+
+    /**
+     *  The placed tiles in the order in which they were placed.
+     */
+    private final Tile[] tiles;
+
+    /**
+     *  The cell index of each placed tile. Parallel to the tiles array.
+     */
+    private final int[] positions;
+
+    private int numTiles;
+
+    /**
+     *  The bounding box (minRow, maxRow, minColumn, maxColumn) before each tile was placed, such that the most recent
+     *  placement can be reverted without having to recompute the bounding box.
+     */
+    private final int[] previousBounds;
+
+    private int minRow;
+    private int maxRow;
+    private int minColumn;
+    private int maxColumn;
+
+    /**
+     * Initialises an empty board. The first tile which is placed defines the bounding box.
+     */
+    public Board() {
+        rows = new short[SIZE][];
+        Arrays.fill(rows, EMPTY_ROW);
+        planes = new long[SIZE][];
+        Arrays.fill(planes, EMPTY_PLANES);
+        ownedRows = new long[(SIZE + 63) / 64];
+        ownedPlanes = new long[(SIZE + 63) / 64];
+        ownedTiles = new long[(MAX_TILES + 63) / 64];
+        tiles = new Tile[MAX_TILES];
+        positions = new int[MAX_TILES];
+        previousBounds = new int[MAX_TILES * 4];
+        numTiles = 0;
+        minRow = CENTRE;
+        maxRow = CENTRE;
+        minColumn = CENTRE;
+        maxColumn = CENTRE;
+    }
+
+    /**
+     * Copy constructor. The rows are shared with the given board, so neither of the two boards owns them afterwards.
+     * @param board The board to be copied.
+     * @param shareTiles If true, the tiles are shared as well. Otherwise deep copies of the tiles are created, which
+     *                   is necessary if references to the tiles of the given board are held elsewhere in order to
+     *                   modify them later on (e.g. in an undo journal).
+     */
+    public Board(Board board, boolean shareTiles) {
+        this.rows = board.rows.clone();
+        this.planes = board.planes.clone();
+        this.ownedRows = new long[board.ownedRows.length];
+        this.ownedPlanes = new long[board.ownedPlanes.length];
+        this.ownedTiles = new long[board.ownedTiles.length];
+        this.tiles = board.tiles.clone();
+        this.positions = board.positions.clone();
+        this.previousBounds = board.previousBounds.clone();
+        this.numTiles = board.numTiles;
+        this.minRow = board.minRow;
+        this.maxRow = board.maxRow;
+        this.minColumn = board.minColumn;
+        this.maxColumn = board.maxColumn;
+
+        Arrays.fill(board.ownedRows, 0);
+        Arrays.fill(board.ownedPlanes, 0);
+
+        if (shareTiles) {
+            Arrays.fill(board.ownedTiles, 0);
+        } else {
+            for (int i = 0; i < numTiles; i++) {
+                this.tiles[i] = new Tile(board.tiles[i]);
+            }
+
+            Arrays.fill(this.ownedTiles, -1L);
+        }
+    }
+
+    /**
+     * Turns the given board into a copy of this one with bulk copies into its existing arrays, which is the same as
+     * the copy constructor without allocating a new board.
+     * @param target The board to be overwritten.
+     * @param shareTiles See the copy constructor.
+     */
+    public void copyInto(Board target, boolean shareTiles) {
+        System.arraycopy(rows, 0, target.rows, 0, SIZE);
+        System.arraycopy(planes, 0, target.planes, 0, SIZE);
+        System.arraycopy(tiles, 0, target.tiles, 0, MAX_TILES);
+        System.arraycopy(positions, 0, target.positions, 0, MAX_TILES);
+        System.arraycopy(previousBounds, 0, target.previousBounds, 0, MAX_TILES * 4);
+        target.numTiles = numTiles;
+        target.minRow = minRow;
+        target.maxRow = maxRow;
+        target.minColumn = minColumn;
+        target.maxColumn = maxColumn;
+
+        Arrays.fill(ownedRows, 0);
+        Arrays.fill(ownedPlanes, 0);
+        Arrays.fill(target.ownedRows, 0);
+        Arrays.fill(target.ownedPlanes, 0);
+
+        if (shareTiles) {
+            Arrays.fill(ownedTiles, 0);
+            Arrays.fill(target.ownedTiles, 0);
+        } else {
+            for (int i = 0; i < numTiles; i++) {
+                target.tiles[i] = new Tile(tiles[i]);
+            }
+
+            Arrays.fill(target.ownedTiles, -1L);
+        }
+    }
+
+    /**
+     * Places a tile on an empty cell and extends the bounding box if necessary.
+     * @param row The absolute row of the cell.
+     * @param column The absolute column of the cell.
+     * @param tile The tile to be placed.
+     */
+    public void place(int row, int column, Tile tile) {
+        int cell = row * SIZE + column;
+
+        previousBounds[numTiles * 4] = minRow;
+        previousBounds[numTiles * 4 + 1] = maxRow;
+        previousBounds[numTiles * 4 + 2] = minColumn;
+        previousBounds[numTiles * 4 + 3] = maxColumn;
+
+        tiles[numTiles] = tile;
+        positions[numTiles] = cell;
+        tile.setPosition(cell);
+        ownedTiles[numTiles >>> 6] |= 1L << numTiles;
+        numTiles++;
+        getRowForWriting(row)[column] = (short) numTiles;
+
+        setBit(row, OCCUPIED, column, true);
+
+        // The tile is on the opposite side of each neighbour, e.g., the cell above the tile has it at the bottom.
+        setBit(row - 1, getEdgePlane(0, tile.getPoint(7)), column, true);
+        setBit(row, getEdgePlane(1, tile.getPoint(10)), column - 1, true);
+        setBit(row + 1, getEdgePlane(2, tile.getPoint(1)), column, true);
+        setBit(row, getEdgePlane(3, tile.getPoint(4)), column + 1, true);
+
+        if (numTiles == 1) {
+            minRow = row;
+            maxRow = row;
+            minColumn = column;
+            maxColumn = column;
+        } else {
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+            minColumn = Math.min(minColumn, column);
+            maxColumn = Math.max(maxColumn, column);
+        }
+    }
+
+    /**
+     * Removes the tile which was placed most recently and restores the bounding box from before its placement.
+     * @return The removed tile.
+     */
+    public Tile removeLastTile() {
+        numTiles--;
+
+        Tile tile = tiles[numTiles];
+        int row = positions[numTiles] / SIZE;
+        int column = positions[numTiles] % SIZE;
+
+        getRowForWriting(row)[column] = 0;
+        tiles[numTiles] = null;
+
+        // The tile is the only neighbour on the respective side of each adjacent cell, so all edge planes of that
+        // side can be cleared.
+        setBit(row, OCCUPIED, column, false);
+
+        for (int edge = 0; edge < 3; edge++) {
+            setBit(row - 1, getEdgePlane(0, edge), column, false);
+            setBit(row, getEdgePlane(1, edge), column - 1, false);
+            setBit(row + 1, getEdgePlane(2, edge), column, false);
+            setBit(row, getEdgePlane(3, edge), column + 1, false);
+        }
+
+        tile.setPosition(-1);
+
+        minRow = previousBounds[numTiles * 4];
+        maxRow = previousBounds[numTiles * 4 + 1];
+        minColumn = previousBounds[numTiles * 4 + 2];
+        maxColumn = previousBounds[numTiles * 4 + 3];
+
+        return tile;
+    }
+
+    /**
+     * @param row The absolute row of the cell.
+     * @param column The absolute column of the cell.
+     * @return The tile at the given cell or null if the cell is empty or outside the grid.
+     */
+    public Tile getTile(int row, int column) {
+        if (row < 0 || row >= SIZE || column < 0 || column >= SIZE) {
+            return null;
+        }
+
+        int index = rows[row][column];
+
+        return index == 0 ? null : tiles[index - 1];
+    }
+
+    /**
+     * @param row The absolute row of the cell.
+     * @param column The absolute column of the cell.
+     * @return The index in placement order of the tile at the given cell or -1 if the cell is empty.
+     */
+    public int getIndex(int row, int column) {
+        return rows[row][column] - 1;
+    }
+
+    /**
+     * @param index The index in placement order.
+     * @return The index-th placed tile. It may be shared with other boards and must therefore not be modified.
+     */
+    public Tile getPlacedTile(int index) {
+        return tiles[index];
+    }
+
+    /**
+     * @param index The index in placement order.
+     * @return The index-th placed tile, which is copied beforehand if it is shared with another board.
+     */
+    public Tile getPlacedTileForWriting(int index) {
+        if ((ownedTiles[index >>> 6] & (1L << index)) == 0) {
+            tiles[index] = new Tile(tiles[index]);
+            ownedTiles[index >>> 6] |= 1L << index;
+        }
+
+        return tiles[index];
+    }
+
+    /**
+     * @param tile A tile which may or may not be on the board.
+     * @return The index in placement order of the given tile or -1 if it isn't on the board.
+     */
+    public int indexOf(Tile tile) {
+        int position = tile.getPosition();
+
+        if (position == -1) {
+            return -1;
+        }
+
+        // The tile might have been copied from a tile on another board, in which case it carries a position too.
+        int index = getIndex(position / SIZE, position % SIZE);
+
+        return index != -1 && tiles[index] == tile ? index : -1;
+    }
+
+    /**
+     * Computes the empty cells of 64 consecutive cells of a row on which a tile fits, i.e., the cells which have at
+     * least one neighbour and whose neighbours all match the edges of the tile.
+     * @param row The absolute row.
+     * @param word The index of the word within the row, which covers the columns 64 * word to 64 * word + 63.
+     * @param packedPoints The packed points of the tile in the rotation in question, see TileType.
+     * @return The legal cells as a bitset with bit i for column 64 * word + i.
+     */
+    public long getLegalCells(int row, int word, int packedPoints) {
+        long[] plane = planes[row];
+        long neighbours = 0;
+        long mismatches = 0;
+
+        for (int side = 0; side < 4; side++) {
+            int edge = TileType.getPoint(packedPoints, side * 3 + 1);
+
+            long any = plane[getEdgePlane(side, 0) * WORDS + word] | plane[getEdgePlane(side, 1) * WORDS + word]
+                    | plane[getEdgePlane(side, 2) * WORDS + word];
+
+            neighbours |= any;
+            mismatches |= any & ~plane[getEdgePlane(side, edge) * WORDS + word];
+        }
+
+        return neighbours & ~mismatches & ~plane[OCCUPIED * WORDS + word];
+    }
+
+    /**
+     * @param row The absolute row.
+     * @param word The index of the word within the row.
+     * @return The empty cells with at least one neighbour (the frontier) as a bitset, see getLegalCells().
+     */
+    public long getFrontierCells(int row, int word) {
+        long[] plane = planes[row];
+        long neighbours = 0;
+
+        for (int i = getEdgePlane(0, 0); i < NUM_PLANES; i++) {
+            neighbours |= plane[i * WORDS + word];
+        }
+
+        return neighbours & ~plane[OCCUPIED * WORDS + word];
+    }
+
+    /**
+     * @param row The absolute row of an empty cell.
+     * @param column The absolute column of the cell.
+     * @return The edge signature of the cell, see TileType.
+     */
+    public int getEdgeSignature(int row, int column) {
+        long[] plane = planes[row];
+        int[] edges = {TileType.OPEN, TileType.OPEN, TileType.OPEN, TileType.OPEN};
+
+        for (int side = 0; side < 4; side++) {
+            for (int edge = 0; edge < 3; edge++) {
+                if ((plane[getEdgePlane(side, edge) * WORDS + (column >>> 6)] & (1L << column)) != 0) {
+                    edges[side] = edge;
+                }
+            }
+        }
+
+        return TileType.getSignature(edges[0], edges[1], edges[2], edges[3]);
+    }
+
+    /**
+     * @param side The side of a cell (0 bottom, 1 right, 2 top, 3 left).
+     * @param edge The edge type (0 grass, 1 city, 2 road).
+     * @return The plane of the cells whose neighbour on the given side has the given type of edge facing the cell.
+     */
+    private static int getEdgePlane(int side, int edge) {
+        return 1 + side * 3 + edge;
+    }
+
+    private void setBit(int row, int plane, int column, boolean value) {
+        if (row < 0 || row >= SIZE || column < 0 || column >= SIZE) {
+            return;
+        }
+
+        if ((ownedPlanes[row >>> 6] & (1L << row)) == 0) {
+            planes[row] = planes[row].clone();
+            ownedPlanes[row >>> 6] |= 1L << row;
+        }
+
+        if (value) {
+            planes[row][plane * WORDS + (column >>> 6)] |= 1L << column;
+        } else {
+            planes[row][plane * WORDS + (column >>> 6)] &= ~(1L << column);
+        }
+    }
+
+    private short[] getRowForWriting(int row) {
+        if ((ownedRows[row >>> 6] & (1L << row)) == 0) {
+            rows[row] = rows[row].clone();
+            ownedRows[row >>> 6] |= 1L << row;
+        }
+
+        return rows[row];
+    }
+
+    /**
+     * @param index The index in placement order.
+     * @return The absolute cell index (row * SIZE + column) of the index-th placed tile.
+     */
+    public int getPosition(int index) {
+        return positions[index];
+    }
+
+    public int getNumTiles() {
+        return numTiles;
+    }
+
+    public int getMinRow() {
+        return minRow;
+    }
+
+    public int getMinColumn() {
+        return minColumn;
+    }
+
+    public int getMaxRow() {
+        return maxRow;
+    }
+
+    public int getMaxColumn() {
+        return maxColumn;
+    }
+
+    public int getHeight() {
+        return maxRow - minRow + 1;
+    }
+
+    public int getWidth() {
+        return maxColumn - minColumn + 1;
+    }
+}
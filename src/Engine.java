@@ -5,6 +5,7 @@ public class Engine {
     private final Player player1;
     private final Player player2;
     private long randomSeed;
+    private Position startingPosition;
     public static boolean verbose;
     public static int numNodes = 0;
 
@@ -14,9 +15,17 @@ public class Engine {
         this.randomSeed = randomSeed;
     }
 
+    /**
+     * @param position The position from which the game should start instead of the starting tile. The deck of the
+     *                 position is drawn from in its order.
+     */
+    public void setStartingPosition(Position position) {
+        this.startingPosition = position;
+    }
+
     public void play() throws Exception {
         GameStateSpace stateSpace = new GameStateSpace();
-        GameState state = stateSpace.init();
+        GameState state;
         Random random;
 
         if (randomSeed == -1) {
@@ -25,7 +34,19 @@ public class Engine {
 
         random = new Random(randomSeed);
 
-        List<Tile> deck = assembleDeck(random);
+        List<Tile> deck;
+
+        if (startingPosition == null) {
+            state = stateSpace.init();
+            deck = assembleDeck(random);
+        } else {
+            state = new GameState(startingPosition.getState());
+            deck = copyDeck(startingPosition.getDeck());
+        }
+
+        if (verbose) {
+            state.setListener(new VerboseListener());
+        }
 
         StringBuilder info = new StringBuilder(String.format("The game is played with the following parameters:\n\n" +
                 "Deck Seed:            %d\n" +
@@ -63,6 +84,10 @@ public class Engine {
         double player2ContemplationTime = 0;
 
 
+        // The legal moves of each turn are generated into the same buffers.
+        int[] moves = new int[PackedMove.MAX_MOVES];
+        int[] meepleMoves = new int[PackedMove.MAX_MEEPLES];
+
         while (!stateSpace.isGoal(state)) {
             if (verbose) System.out.println("Current score: " + Arrays.toString(state.getScore()));
 
@@ -77,23 +102,20 @@ public class Engine {
             // Players should be given a list of possible moves and should pick one of those moves.
 
             int player = deck.size() % 2 == 0 ? 1 : 2;
-            List<Move> moves = new ArrayList<>();
-
-            while (moves.isEmpty()) {
-                moves = stateSpace.placementSucc(state, drawnTile);
-
-                // In the rare case that the drawn tile cannot legally be placed, the tile is added back to the deck
-                // and a new tile is drawn.
-                if (moves.isEmpty()) {
-                    if (verbose) System.out.printf("Player %d draws tile with no possible legal moves. The tile is therefore redrawn.\n\n", ((deck.size() % 2) + 1));
-                    deck.add(drawnTile);
-                    Collections.shuffle(deck, random);
-                    drawnTile = drawTile(deck);
-                    drawnTile.printTile();
-                }
+
+            // In the rare case that the drawn tile cannot legally be placed, the tile is added back to the deck and a
+            // new tile is drawn.
+            while (!stateSpace.isPlaceable(state, drawnTile)) {
+                if (verbose) System.out.printf("Player %d draws tile with no possible legal moves. The tile is therefore redrawn.\n\n", ((deck.size() % 2) + 1));
+                deck.add(drawnTile);
+                Collections.shuffle(deck, random);
+                drawnTile = drawTile(deck);
+                drawnTile.printTile();
             }
 
-            Pair choice;
+            int numMoves = stateSpace.placementSucc(state, drawnTile, moves);
+
+            int choice;
 
             List<Tile> shuffledDeck = copyDeck(deck);
             Collections.shuffle(shuffledDeck);
@@ -102,41 +124,46 @@ public class Engine {
                 if ((player1 instanceof MCTSPlayer || player1 instanceof MinimaxPlayer) && verbose)
                     System.out.println("Player 1 is calculating a move...");
                 long time1 = System.nanoTime();
-                choice = player1.decideOnNextMove(state, drawnTile, shuffledDeck, moves);
+                choice = player1.decideOnNextPackedMove(state, drawnTile, shuffledDeck, moves, numMoves);
                 long time2 = System.nanoTime();
                 player1ContemplationTime += (time2 - time1) / Math.pow(10, 9);
             } else {
                 if ((player2 instanceof MCTSPlayer || player2 instanceof MinimaxPlayer) && verbose)
                     System.out.println("Player 2 is calculating a move...");
                 long time1 = System.nanoTime();
-                choice = player2.decideOnNextMove(state, drawnTile, shuffledDeck, moves);
+                choice = player2.decideOnNextPackedMove(state, drawnTile, shuffledDeck, moves, numMoves);
                 long time2 = System.nanoTime();
                 player2ContemplationTime += (time2 - time1) / Math.pow(10, 9);
             }
 
-            Move move = moves.get(choice.getFirst());
-            int meeplePlacement = choice.getSecond();
+            int meeplePlacement = PackedMove.getMeeplePlacement(choice);
 
-            drawnTile.rotateBy(move.getRotation());
+            int numMeepleMoves = stateSpace.meepleSucc(state, drawnTile, choice, player, meepleMoves);
+            boolean legalMeeplePlacement = false;
 
-            List<Integer> meepleSuccessors = stateSpace.meepleSucc(state, drawnTile, move.getCoords(), player);
+            for (int i = 0; i < numMeepleMoves; i++) {
+                if (meepleMoves[i] == choice) {
+                    legalMeeplePlacement = true;
+                }
+            }
 
-            if (meepleSuccessors.contains(meeplePlacement)) {
-                //drawnTile.placeMeeple(choice.getSecond(), player);
-                if (choice.getSecond() != -1) {
+            drawnTile.rotateBy(PackedMove.getRotation(choice));
+
+            if (legalMeeplePlacement) {
+                if (meeplePlacement != -1) {
                     if (verbose) System.out.println("Player " + player + " has " + state.getNumMeeples(player) + " meeples remaining.");
                     if (verbose) System.out.println("Player " + player + " places meeple.");
-                    state.placeMeeple(choice.getSecond(), player, drawnTile);
+                    state.placeMeeple(meeplePlacement, player, drawnTile);
                 }
             } else {
                 if (verbose) System.out.printf("Meeple placement at point %d not allowed.\n\n", meeplePlacement);
             }
 
-            state.updateBoard(move.getCoords(), drawnTile);
+            state.updateBoard(PackedMove.getX(choice), PackedMove.getY(choice), drawnTile);
 
             System.out.println("Player " + player + " has " + state.getNumMeeples(player) + " meeples remaining.");
 
-            state.checkForScoreAfterRound(true);
+            state.checkForScoreAfterRound();
         }
 
         state.displayBoard();
@@ -158,7 +185,7 @@ public class Engine {
      * @param amount The number of tiles of the given type to be added.
      * @param pennant True if the tile includes a pennant.
      */
-    private void addTilesToDeck(List<Tile> deck, int type, int amount, boolean pennant) {
+    private static void addTilesToDeck(List<Tile> deck, int type, int amount, boolean pennant) {
         for (int i = 0; i < amount; i++) {
             deck.add(new Tile(type, pennant));
         }
@@ -168,6 +195,19 @@ public class Engine {
      * Assembles the deck according to the game's instructions and then shuffles it.
      */
     private List<Tile> assembleDeck(Random random) {
+        List<Tile> deck = getStandardDeck();
+
+        // shuffle the deck
+        Collections.shuffle(deck, random);
+
+        return deck;
+    }
+
+    /**
+     * @return New tiles in the composition of the deck according to the game's instructions, ordered by type. The
+     * starting tile isn't part of it.
+     */
+    static List<Tile> getStandardDeck() {
         List<Tile> deck = new ArrayList<>();
 
         addTilesToDeck(deck,0, 4, false);
@@ -191,9 +231,6 @@ public class Engine {
         addTilesToDeck(deck,17, 1, true);
         addTilesToDeck(deck,18, 1, true);
 
-        // shuffle the deck
-        Collections.shuffle(deck, random);
-
         return deck;
     }
 
@@ -214,4 +251,20 @@ public class Engine {
     public static void printError(String message) {
         if (verbose) System.out.println("\u001B[31m **" + message + "\u001B[0m");
     }
+
+    /**
+     * Prints the features which are completed during the game.
+     */
+    private static class VerboseListener implements GameStateListener {
+
+        @Override
+        public void pointsAwarded(int player, int points, int type) {
+            if (type == -1) {
+                return;
+            }
+
+            String feature = type == 1 ? "City" : type == 2 ? "Road" : "Monastery";
+            System.out.println(feature + " completed! Player " + player + " has gained " + points + " points.");
+        }
+    }
 }
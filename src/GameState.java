@@ -1,32 +1,59 @@
 import java.util.*;
 
 public class GameState {
-    private final List<List<Tile>> board;
+    private final Board board;
 
-    private final Map<Integer, Integer> areaTypes;
-    private final List<Integer> completedCities;
-    private int areaCounter;
+    /**
+     *  Keeps track of the types of the areas and which of them have been connected.
+     */
+    private final AreaTable areas;
+
+    /**
+     *  One bit per placed tile (by placement index) which is set if the tile carries a meeple, such that the meeples
+     *  of a completed feature can be returned without traversing the board.
+     */
+    private final PagedIntArray meepleTiles;
 
     private final int[] scores;
     private final int[] numMeeples;
 
     private int deckSize;
 
+    /**
+     *  The Zobrist hash of the state (see Zobrist), which is updated along with the board and the meeples.
+     */
+    private long hash;
+
+    /**
+     *  Records the changes made to this state, such that they can be reverted by undo(). Only allocated once a mark
+     *  has been set, since most states are never modified in an undoable fashion.
+     */
+    private UndoLog journal;
+
+    /**
+     *  Receives the events of this state (see GameStateListener) or null if nobody is listening.
+     */
+    private GameStateListener listener;
+
     /**
      * Initialises a game object. Thereby the deck is assembled according to the game's instructions.
      */
     public GameState() {
-        board = new ArrayList<>();
+        board = new Board();
         numMeeples = new int[]{7, 7};
 
         deckSize = 71;
 
-        board.add(new ArrayList<>());
-
         scores = new int[]{0, 0};
 
         Tile startingTile = new Tile(0, false);
 
+        areas = new AreaTable();
+        areas.newArea(0);
+        areas.newArea(2);
+        areas.newArea(0);
+        areas.newArea(1);
+
         startingTile.setArea(0, 0);
         startingTile.setArea(1, 0);
         startingTile.setArea(2, 0);
@@ -40,52 +67,306 @@ public class GameState {
         startingTile.setArea(10, 1);
         startingTile.setArea(11, 0);
 
-        // The starting tile as defined in the game's manual.
-        board.get(0).add(startingTile);
+        meepleTiles = new PagedIntArray(0);
 
-        areaTypes = new HashMap<>();
-        areaTypes.put(0, 0);
-        areaTypes.put(1, 2);
-        areaTypes.put(2, 1);
-        areaTypes.put(3, 0);
-        areaCounter = 4;
+        // The starting tile as defined in the game's manual.
+        addToAreaRecords(startingTile, new Tile[4]);
+        board.place(Board.CENTRE, Board.CENTRE, startingTile);
 
-        completedCities = new ArrayList<>();
+        hash = getTileKey(startingTile);
     }
 
     public void placeMeeple(int side, int playerID, Tile tile) {
         if (getNumMeeples(playerID) > 0) {
             removeMeeple(playerID);
+            record(UndoLog.TILE_MEEPLE, tile, tile.getMeepleSide(), tile.getMeeplePlayer());
             tile.placeMeeple(side, playerID);
+
+            // If the tile is already on the board, the meeple joins its area right away. Otherwise it's added once
+            // the tile is placed.
+            int index = board.indexOf(tile);
+
+            if (side != -1 && index != -1) {
+                areas.addMeeple(tile.getArea(side), playerID, 1);
+                setMeepleTile(index, true);
+                updateHash(Zobrist.meeple(tile.getPosition(), side, playerID));
+
+                if (isListening()) {
+                    listener.meeplePlaced(tile.getPosition(), side, playerID);
+                }
+            }
         }
     }
 
     /**
-     * Copy constructor.
-     * @param state The GameState object for which a deep copy should be created.
+     * @param listener The listener which receives the events of this state from now on, or null to stop emitting
+     *                 events. Changes made between mark() or apply() and undo() aren't reported, since they are
+     *                 only tried out, e.g. by getScoreDelta().
+     */
+    public void setListener(GameStateListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return True if the changes to the state are reported to the listener, i.e., if there is one and the changes
+     * aren't recorded to be undone.
+     */
+    private boolean isListening() {
+        return listener != null && (journal == null || !journal.isRecording());
+    }
+
+    /**
+     * Starts a new entry in the undo journal. All changes made to the state from now on are recorded, such that the
+     * next call of undo() reverts the state to how it was when this method was called. Marks can be nested.
+     */
+    public void mark() {
+        if (journal == null) {
+            journal = new UndoLog();
+            areas.setJournal(journal);
+        }
+
+        journal.mark();
+    }
+
+    /**
+     * Executes a whole move on this state, i.e., rotates the tile, places the meeple for the player whose turn it is,
+     * places the tile and scores the completed features. In contrast to copying the state, the move can be taken back
+     * by calling undo(), which allows for searches to walk down and back up a single state. The tile itself becomes
+     * part of the board until then, so it shouldn't be modified in between. Undoing the move also restores the
+     * rotation of the tile, so the same tile can be used for all moves generated for it.
+     * @param move The coordinates and the rotation of the tile, which is relative to the current rotation of the tile
+     *             like that of the moves of GameStateSpace.placementSucc().
+     * @param tile The tile which should be placed.
+     * @param meeplePlacement The point on which a meeple is placed or -1 if no meeple is placed.
+     */
+    public void apply(Move move, Tile tile, int meeplePlacement) {
+        apply(PackedMove.encode(move, meeplePlacement), tile);
+    }
+
+    /**
+     * Same as apply(Move, Tile, int) for a packed move.
+     * @param move The packed move including the meeple placement, see PackedMove.
+     * @param tile The tile which should be placed.
+     */
+    public void apply(int move, Tile tile) {
+        mark();
+
+        record(UndoLog.TILE_ROTATION, tile, tile.getRotation(), 0);
+        tile.rotateBy(PackedMove.getRotation(move));
+
+        if (PackedMove.getMeeplePlacement(move) != -1) {
+            placeMeeple(PackedMove.getMeeplePlacement(move), getPlayer(), tile);
+        }
+
+        updateBoard(PackedMove.getX(move), PackedMove.getY(move), tile);
+        checkForScoreAfterRound();
+    }
+
+    /**
+     * Reverts all changes made since the most recent call of mark() or apply(), in reverse order.
+     */
+    public void undo() {
+        if (journal == null) {
+            throw new IllegalStateException("There is no change which could be undone.");
+        }
+
+        int mark = journal.popMark();
+
+        for (int i = journal.size() - 1; i >= mark; i--) {
+            int first = journal.getFirstValue(i);
+            int second = journal.getSecondValue(i);
+
+            switch (journal.getKind(i)) {
+                case UndoLog.TILE_PLACED: {
+                    board.removeLastTile().resetAreas();
+                    break;
+                }
+                case UndoLog.TILE_MEEPLE: {
+                    Tile tile = (Tile) journal.getReference(i);
+                    tile.removeMeeple();
+                    tile.placeMeeple(first, second);
+                    break;
+                }
+                case UndoLog.TILE_ROTATION: {
+                    ((Tile) journal.getReference(i)).setRotation(first);
+                    break;
+                }
+                case UndoLog.INT_ARRAY: {
+                    ((PagedIntArray) journal.getReference(i)).set(first, second);
+                    break;
+                }
+                case UndoLog.AREA_COUNTER: {
+                    ((AreaTable) journal.getReference(i)).restoreCounter(first, second);
+                    break;
+                }
+                case UndoLog.SCORE: {
+                    scores[first] = second;
+                    break;
+                }
+                case UndoLog.NUM_MEEPLES: {
+                    numMeeples[first] = second;
+                    break;
+                }
+                case UndoLog.DECK_SIZE: {
+                    deckSize = first;
+                    break;
+                }
+                case UndoLog.HASH: {
+                    hash = ((long) first << 32) | (second & 0xFFFFFFFFL);
+                    break;
+                }
+                default: {
+                    throw new IllegalStateException("Unknown journal entry.");
+                }
+            }
+        }
+
+        journal.truncate(mark);
+    }
+
+    private void record(int kind, Object reference, int firstValue, int secondValue) {
+        if (journal != null && journal.isRecording()) {
+            journal.record(kind, reference, firstValue, secondValue);
+        }
+    }
+
+    private void addScore(int player, int points) {
+        record(UndoLog.SCORE, null, player - 1, scores[player - 1]);
+        scores[player - 1] += points;
+    }
+
+    /**
+     * Sets the score of a player, e.g. when a state is rebuilt from a position (see Position).
+     * @param player The ID of the player.
+     * @param points The score of the player.
+     */
+    void setScore(int player, int points) {
+        record(UndoLog.SCORE, null, player - 1, scores[player - 1]);
+        scores[player - 1] = points;
+    }
+
+    private void returnMeeple(int player) {
+        record(UndoLog.NUM_MEEPLES, null, player - 1, numMeeples[player - 1]);
+        numMeeples[player - 1]++;
+    }
+
+    /**
+     * @param index The index of the placed tile in placement order.
+     */
+    private void removeMeepleFromTile(int index) {
+        Tile tile = board.getPlacedTileForWriting(index);
+        areas.addMeeple(tile.getArea(tile.getMeepleSide()), tile.getMeeplePlayer(), -1);
+        setMeepleTile(index, false);
+        updateHash(Zobrist.meeple(tile.getPosition(), tile.getMeepleSide(), tile.getMeeplePlayer()));
+        record(UndoLog.TILE_MEEPLE, tile, tile.getMeepleSide(), tile.getMeeplePlayer());
+
+        if (isListening()) {
+            listener.meepleReturned(tile.getPosition(), tile.getMeepleSide(), tile.getMeeplePlayer());
+        }
+
+        tile.removeMeeple();
+    }
+
+    private void updateHash(long key) {
+        record(UndoLog.HASH, null, (int) (hash >>> 32), (int) hash);
+        hash ^= key;
+    }
+
+    /**
+     * @param tile A tile on the board.
+     * @return The Zobrist key of the tile on its cell.
+     */
+    private long getTileKey(Tile tile) {
+        int rotation = tile.getTileType().getCanonicalRotation(tile.getRotation());
+
+        return Zobrist.tile(tile.getPosition(), tile.getType(), rotation, tile.hasPennant());
+    }
+
+    /**
+     * Two states which have the same tiles and meeples on the same cells and in which it's the same player's turn
+     * have the same hash. The remaining deck consists of the tiles which aren't on the board, so it's covered as well.
+     * @return The Zobrist hash of this state.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    private void setMeepleTile(int index, boolean hasMeeple) {
+        int word = meepleTiles.get(index >>> 5);
+        int value = hasMeeple ? word | (1 << (index & 31)) : word & ~(1 << (index & 31));
+
+        record(UndoLog.INT_ARRAY, meepleTiles, index >>> 5, word);
+        meepleTiles.set(index >>> 5, value);
+    }
+
+    /**
+     * Copy constructor. The copy shares the board and the area tables with the given state and only copies the parts
+     * which either of them modifies later on, so copying doesn't depend on the size of the board.
+     * @param state The GameState object to be copied.
      */
     public GameState(GameState state) {
-        this.board = new ArrayList<>();
+        // The undo journal of the given state references its tiles, which is why they can't be shared while changes
+        // are being recorded.
+        this.board = new Board(state.board, state.journal == null || !state.journal.isRecording());
 
         this.deckSize = state.deckSize;
-        this.areaCounter = state.areaCounter;
+        this.hash = state.hash;
 
-        this.areaTypes = new HashMap<>(Map.copyOf(state.areaTypes));
+        this.areas = new AreaTable(state.areas);
 
-        this.completedCities = new ArrayList<>(List.copyOf(state.completedCities));
+        this.meepleTiles = new PagedIntArray(state.meepleTiles);
 
         this.scores = Arrays.copyOf(state.scores, state.scores.length);
         this.numMeeples = Arrays.copyOf(state.numMeeples, 2);
+    }
 
-        for (int i = 0; i < state.board.size(); i++) {
-            this.board.add(new ArrayList<>());
+    /**
+     * Turns the given state into a copy of this one, such that a state can be reused instead of allocating a new one
+     * for every copy. Afterwards, the two states share their board and area tables like after the copy constructor,
+     * and the journal of the target is empty.
+     * @param target The state to be overwritten.
+     */
+    public void copyInto(GameState target) {
+        board.copyInto(target.board, journal == null || !journal.isRecording());
+        areas.copyInto(target.areas);
+        meepleTiles.copyInto(target.meepleTiles);
+
+        System.arraycopy(scores, 0, target.scores, 0, 2);
+        System.arraycopy(numMeeples, 0, target.numMeeples, 0, 2);
+        target.deckSize = deckSize;
+        target.hash = hash;
+
+        if (target.journal != null) {
+            target.journal.clear();
+        }
+    }
 
-            for (int j = 0; j < state.board.get(0).size(); j++) {
-                if (state.board.get(i).get(j) == null) {
-                    this.board.get(i).add(null);
-                } else {
-                    this.board.get(i).add(new Tile(state.board.get(i).get(j)));
-                }
+    /**
+     * Restores a state from its parts, which is how Snapshot reads a state. The meeples of the tiles on the board
+     * have to be accounted for in the area table already, so only the derived parts are computed here.
+     * @param board The board with the placed tiles, including their areas and meeples.
+     * @param areas The area table of the board.
+     * @param scores The scores of both players.
+     * @param numMeeples The number of meeples both players have left.
+     * @param deckSize The number of tiles left in the deck.
+     */
+    GameState(Board board, AreaTable areas, int[] scores, int[] numMeeples, int deckSize) {
+        this.board = board;
+        this.areas = areas;
+        this.scores = scores;
+        this.numMeeples = numMeeples;
+        this.deckSize = deckSize;
+
+        meepleTiles = new PagedIntArray(0);
+        hash = getPlayer() == 2 ? Zobrist.secondPlayer() : 0;
+
+        for (int index = 0; index < board.getNumTiles(); index++) {
+            Tile tile = board.getPlacedTile(index);
+            hash ^= getTileKey(tile);
+
+            if (tile.hasMeeple()) {
+                setMeepleTile(index, true);
+                hash ^= Zobrist.meeple(tile.getPosition(), tile.getMeepleSide(), tile.getMeeplePlayer());
             }
         }
     }
@@ -97,214 +378,239 @@ public class GameState {
      * @param tile The tile which should be placed.
      */
     public void updateBoard(Coordinates coords, Tile tile) {
+        updateBoard(coords.x, coords.y, tile);
+    }
 
+    /**
+     * @param x The row of the cell in the placement space, which has an additional row on each side of the board.
+     * @param y The column of the cell in the placement space.
+     * @param tile The tile which should be placed.
+     */
+    public void updateBoard(int x, int y, Tile tile) {
+
+        record(UndoLog.DECK_SIZE, null, deckSize, 0);
         deckSize--;
 
         tile.resetAreas();
 
-        if (tile.getMiddle() == 4) {
-            tile.setArea(12, assignNewArea(4));
-        }
+        // The coordinates given by the move consider an additional potential row and column on each side of the
+        // board, hence the subtraction of 1. The board grows in every direction without any tiles being moved, so
+        // this is all that's needed even if the tile extends the board by a new row or column.
+        int row = board.getMinRow() + x - 1;
+        int column = board.getMinColumn() + y - 1;
 
-        Map<Integer, Tile> neighbours = getNeighboursByType(coords, false);
+        Tile[] neighbours = {
+                board.getTile(row + 1, column),
+                board.getTile(row, column + 1),
+                board.getTile(row - 1, column),
+                board.getTile(row, column - 1)
+        };
 
-        for (int side : neighbours.keySet()) {
+        for (int side = 0; side < 4; side++) {
             int point1 = side * 3;
             int point2 = side * 3 + 1;
             int point3 = side * 3 + 2;
 
-            Tile neighbour = neighbours.get(side);
+            Tile neighbour = neighbours[side];
+
+            if (neighbour == null) {
+                continue;
+            }
 
             tile.setArea(point1, getOppositeArea(point1, neighbour));
             tile.setArea(point2, getOppositeArea(point2, neighbour));
             tile.setArea(point3, getOppositeArea(point3, neighbour));
         }
 
-        List<TreeSet<Integer>> adjacentPointsOfSameType = new ArrayList<>();
-        adjacentPointsOfSameType.add(new TreeSet<>());
-        adjacentPointsOfSameType.get(0).add(0);
+        // The segments of the tile (the points which are connected within the tile) are looked up by type and
+        // rotation. If points of a segment inherit different areas from the neighbours, then this tile connects those
+        // areas and consequently they are merged.
+        TileType tileType = tile.getTileType();
+        int rotation = tile.getRotation();
 
-        List<Integer> indices = new ArrayList<>();
+        for (int segment = 0; segment < tileType.getNumSegments(rotation); segment++) {
+            int points = tileType.getSegmentPoints(rotation, segment);
+            int area = -1;
 
-        int runner = 0;
+            for (int rest = points; rest != 0; rest &= rest - 1) {
+                int point = Integer.numberOfTrailingZeros(rest);
 
-        if (tile.getPoint(0) == tile.getMiddle()) {
-            indices.add(runner);
-        }
+                if (tile.getArea(point) == -1) {
+                    continue;
+                }
 
-        for (int point = 0; point < 11; point++) {
-            // Assign areas to all points which don't have an area yet.
+                int other = areas.find(tile.getArea(point));
 
-            if (tile.getPoint(point) == tile.getPoint(point+1)) {
-                adjacentPointsOfSameType.get(runner).add(point);
-                adjacentPointsOfSameType.get(runner).add(point+1);
-            } else {
-                runner++;
-                adjacentPointsOfSameType.add(new TreeSet<>());
-                adjacentPointsOfSameType.get(runner).add(point+1);
+                if (area == -1) {
+                    area = other;
+                } else if (other != area) {
+                    int root = areas.union(area, other);
 
-                if (tile.getPoint(point+1) == tile.getMiddle()) {
-                    indices.add(runner);
+                    if (isListening()) {
+                        listener.areasMerged(root, root == area ? other : area);
+                    }
+
+                    area = root;
                 }
             }
-        }
 
-        if (tile.getPoint(11) == tile.getPoint(0) && runner > 0) {
-            adjacentPointsOfSameType.get(0).addAll(adjacentPointsOfSameType.get(runner));
-            adjacentPointsOfSameType.remove(runner);
+            if (area == -1) {
+                area = areas.newArea(tileType.getSegmentType(rotation, segment));
+
+                if (isListening()) {
+                    listener.areaCreated(area, tileType.getSegmentType(rotation, segment));
+                }
+            }
 
-            if (indices.contains(adjacentPointsOfSameType.size())) {
-                indices.remove(indices.size()-1);
+            for (int rest = points; rest != 0; rest &= rest - 1) {
+                tile.setArea(Integer.numberOfTrailingZeros(rest), area);
             }
         }
 
-        adjacentPointsOfSameType.removeIf(TreeSet::isEmpty);
+        addToAreaRecords(tile, neighbours);
 
-        // Merge all sets of adjacent points of the same type for the types corresponding to the middle.
+        board.place(row, column, tile);
+        record(UndoLog.TILE_PLACED, tile, 0, 0);
 
-        for (int i = 1; i < indices.size(); i++) {
-            adjacentPointsOfSameType.get(indices.get(0)).addAll(adjacentPointsOfSameType.get(indices.get(i)));
-            int index = indices.get(i);
-            adjacentPointsOfSameType.remove(index);
-        }
+        // The turn passes to the other player along with the placement.
+        updateHash(getTileKey(tile) ^ Zobrist.secondPlayer());
 
-        List<Integer> areas = new ArrayList<>();
+        if (tile.hasMeeple()) {
+            updateHash(Zobrist.meeple(tile.getPosition(), tile.getMeepleSide(), tile.getMeeplePlayer()));
 
-        for (Set<Integer> set : adjacentPointsOfSameType) {
-            int area = Integer.MAX_VALUE;
-            int type = -1;
-            Set<Integer> inheritedAreas = new TreeSet<>();
+            if (isListening()) {
+                listener.meeplePlaced(tile.getPosition(), tile.getMeepleSide(), tile.getMeeplePlayer());
+            }
+        }
 
-            for (int point : set) {
-                type = tile.getPoint(point);
+        updateMonasteries(row, column);
+    }
 
-                if (/*tile.getArea(point) < area && */tile.getArea(point) != -1) {
-                    inheritedAreas.add(tile.getArea(point));
+    /**
+     * Traverses the frontier, i.e., the empty cells next to at least one placed tile, in row-major order, e.g., by
+     * starting at cell 0 and continuing after each found cell.
+     * @param cell The absolute cell index from which the search starts.
+     * @return The smallest absolute cell index of the frontier which is at least the given one, or -1 if there is none.
+     */
+    public int getNextFrontierCell(int cell) {
+        int row = Math.max(cell / Board.SIZE, board.getMinRow() - 1);
+        int column = row == cell / Board.SIZE ? cell % Board.SIZE : 0;
 
-                    // If adjacent points of the same type inherit from different areas, then this tile connects
-                    // those two areas and consequently we must replace the one of the areas. In our case this is
-                    // the area with the higher area code with the area with the lower area code.
-                    if (inheritedAreas.size() > 1) {
-                        int replacedArea = Collections.max(inheritedAreas);
-                        int newArea = Collections.min(inheritedAreas);
-                        replaceArea(replacedArea, newArea);
+        // The frontier doesn't extend beyond the row below the bounding box.
+        for (; row <= board.getMaxRow() + 1; row++, column = 0) {
+            for (int word = column >>> 6; word < Board.WORDS; word++) {
+                long cells = board.getFrontierCells(row, word);
 
-                        for (int i = 0; i <= 12; i++) {
-                            if (tile.getArea(i) == replacedArea) {
-                                tile.setArea(i, newArea);
-                            }
-                        }
-                    }
+                if (word == column >>> 6) {
+                    cells &= -1L << column;
+                }
 
-                    area = tile.getArea(point);
+                if (cells != 0) {
+                    return row * Board.SIZE + (word << 6) + Long.numberOfTrailingZeros(cells);
                 }
             }
+        }
 
-            if (area == Integer.MAX_VALUE) {
-                area = assignNewArea(type);
-            }
+        return -1;
+    }
 
-            areas.add(area);
-        }
+    /**
+     * @param cell The absolute cell index of a cell of the frontier.
+     * @return The edge signature of the cell, see TileType.
+     */
+    public int getEdgeSignature(int cell) {
+        return board.getEdgeSignature(cell / Board.SIZE, cell % Board.SIZE);
+    }
 
-        for (int i = 0; i < adjacentPointsOfSameType.size(); i++) {
-            Set<Integer> set = adjacentPointsOfSameType.get(i);
+    Board getBoard() {
+        return board;
+    }
 
-            for (int point : set) {
-                tile.setArea(point, areas.get(i));
-            }
-        }
+    AreaTable getAreas() {
+        return areas;
+    }
 
-        for (int i = 0; i < 12; i++) {
-            if (tile.getPoint(i) == tile.getMiddle()) {
-                tile.setMiddleArea(tile.getArea(i));
-                break;
-            }
-        }
+    /**
+     * @param cell An absolute cell index.
+     * @return The coordinates of the cell in the placement space used by moves, which has an additional row and
+     *         column on each side of the board.
+     */
+    public Coordinates getPlacementCoordinates(int cell) {
+        return new Coordinates(cell / Board.SIZE - board.getMinRow() + 1, cell % Board.SIZE - board.getMinColumn() + 1);
+    }
 
-        // Yeah, here's where the bodges start again... This is handling the case of tile 15, where there's a road
-        // without the middle of the tile being a road. This is a special case and differs from all other road tiles.
-        if (tile.getType() == 15) {
-            int roadArea = Integer.MAX_VALUE;
+    /**
+     * Adds a newly placed tile to the monasteries in its 3x3 neighbourhood. If the tile is a monastery itself, the
+     * tiles which are already around it are added to it. A monastery is completed once it covers 9 tiles.
+     * @param row The absolute row of the placed tile.
+     * @param column The absolute column of the placed tile.
+     */
+    private void updateMonasteries(int row, int column) {
+        Tile tile = board.getTile(row, column);
+        int index = board.getIndex(row, column);
 
-            for (int i = 0; i < 4; i++) {
-                if (tile.getPoint(i*3 + 1) == 2 && tile.getArea(i*3 + 1) < roadArea) {
-                    roadArea = tile.getArea(i*3 + 1);
-                }
-            }
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = column - 1; j <= column + 1; j++) {
+                Tile neighbour = board.getTile(i, j);
 
-            for (int i = 0; i < 4; i++) {
-                if (tile.getPoint(i*3 + 1) == 2) {
-                    tile.setArea(i*3 + 1, roadArea);
+                if (neighbour == null || neighbour == tile) {
+                    continue;
                 }
-            }
-        }
-
-        //--------------------------
 
-        // This is the case where the tile generates a new top row.
-        if (coords.x == 0) {
-            board.add(0, new ArrayList<>());
-            for (int i = 0; i < coords.y - 1; i++) {
-                board.get(0).add(null);
-            }
-            board.get(0).add(tile);
+                if (neighbour.getMiddle() == 4) {
+                    areas.addTile(neighbour.getArea(12), index);
+                }
 
-            for (int i = coords.y; i < getBoardDimensions()[1]; i++) {
-                board.get(0).add(null);
+                if (tile.getMiddle() == 4) {
+                    areas.addTile(tile.getArea(12), board.getIndex(i, j));
+                }
             }
-
-            return;
         }
+    }
 
-        // This is the case where the tile generates a new first column.
-        if (coords.y == 0) {
-            for (int i = 0; i < board.size(); i++) {
-                List<Tile> row = board.get(i);
-                if (i == coords.x - 1) {
-                    row.add(0, tile);
-                } else {
-                    row.add(0, null);
-                }
-            }
+    /**
+     * Adds a tile which is about to be placed to the records of the areas it is part of.
+     * @param tile The tile whose areas have been assigned already.
+     * @param neighbours The neighbours of the tile by side, null where there is none.
+     */
+    private void addToAreaRecords(Tile tile, Tile[] neighbours) {
+        int index = board.getNumTiles();
 
-            return;
+        for (int point = 0; point <= 12; point++) {
+            if (tile.getArea(point) != -1) {
+                areas.addTile(tile.getArea(point), index);
+            }
         }
 
-        // This is the case where the tile generates a new bottom row.
-        if (coords.x == board.size() + 1) {
-            List<Tile> newRow = new ArrayList<>();
+        // Each side of a city or road is an open edge, unless there's a neighbour on that side, in which case the
+        // corresponding edge of the neighbour is closed instead.
+        for (int side = 0; side < 4; side++) {
+            int point = side * 3 + 1;
 
-            for (int i = 0; i < getBoardDimensions()[1]; i++) {
-                if (coords.y - 1 == i) {
-                    newRow.add(tile);
-                } else {
-                    newRow.add(null);
-                }
+            if (tile.getPoint(point) == 1 || tile.getPoint(point) == 2) {
+                areas.addOpenEdges(tile.getArea(point), neighbours[side] != null ? -1 : 1);
             }
-
-            board.add(newRow);
-            return;
         }
 
-        // This is the case where the tile generates a new last column
-        if (coords.y == getBoardDimensions()[1] + 1) {
-            for (int i = 0; i < getBoardDimensions()[0]; i++) {
+        // A field borders a city if they're next to each other along the edge of the tile.
+        for (int point = 0; point < 12; point++) {
+            int nextPoint = (point + 1) % 12;
 
-                if (coords.x - 1 == i) {
-                    board.get(i).add(tile);
-                } else {
-                    board.get(i).add(null);
-                }
+            if (tile.getPoint(point) == 0 && tile.getPoint(nextPoint) == 1) {
+                areas.addAdjacency(tile.getArea(nextPoint), tile.getArea(point));
+            } else if (tile.getPoint(point) == 1 && tile.getPoint(nextPoint) == 0) {
+                areas.addAdjacency(tile.getArea(point), tile.getArea(nextPoint));
             }
+        }
 
-            return;
+        if (tile.hasPennant()) {
+            areas.addPennant(tile.getArea(12));
         }
 
-        // In the case that the board dimensions remain the same, we simply place the tile at the coordinates given
-        // by the move. These need to be subtracted by 1, since the user has to consider the additional potential row
-        // and column.
-        board.get(coords.x - 1).set(coords.y - 1, tile);
+        if (tile.hasMeeple()) {
+            areas.addMeeple(tile.getArea(tile.getMeepleSide()), tile.getMeeplePlayer(), 1);
+            setMeepleTile(index, true);
+        }
     }
 
     /**
@@ -319,12 +625,11 @@ public class GameState {
 
         // loop over the rows
         for (int rowIndex = 0; rowIndex < boardDimensions[0]; rowIndex++) {
-            List<Tile> row = board.get(rowIndex);
             //loop over the rows within each row
             for (int charRowIndex = 0; charRowIndex < 5; charRowIndex++) {
                 // loop over the tiles in each row
                 for (int columnIndex = 0; columnIndex < boardDimensions[1]; columnIndex++) {
-                    Tile t = row.get(columnIndex);
+                    Tile t = getTile(rowIndex, columnIndex);
                     if (t == null) {
                         // loop over the characters in each row of characters
                         for (int charColumnIndex = 0; charColumnIndex < 10; charColumnIndex++) {
@@ -398,15 +703,7 @@ public class GameState {
      * @return Array of size 2 denoting the dimensions of the board: [height, width].
      */
     public int[] getBoardDimensions() {
-        int maxWidth = board.get(0).size();
-
-        for (List<Tile> row : board) {
-            if (row.size() > maxWidth) {
-                maxWidth = row.size();
-            }
-        }
-
-        return new int[] {board.size(), maxWidth};
+        return new int[] {board.getHeight(), board.getWidth()};
     }
 
     /**
@@ -414,15 +711,20 @@ public class GameState {
      * @return The tile at the given coordinates on the board.
      */
     public Tile getTile(Coordinates coordinates) {
+        return getTile(coordinates.x, coordinates.y);
+    }
 
-        Tile tile = null;
-
-        if (coordinates.x >= 0 && coordinates.x < getBoardDimensions()[0]
-        && coordinates.y >= 0 && coordinates.y < getBoardDimensions()[1]) {
-            tile = board.get(coordinates.x).get(coordinates.y);
+    /**
+     * @param x The row of the tile, where 0 is the top row of the board.
+     * @param y The column of the tile, where 0 is the leftmost column of the board.
+     * @return The tile at the given coordinates on the board or null if there is none.
+     */
+    public Tile getTile(int x, int y) {
+        if (x < 0 || x >= board.getHeight() || y < 0 || y >= board.getWidth()) {
+            return null;
         }
 
-        return tile;
+        return board.getTile(board.getMinRow() + x, board.getMinColumn() + y);
     }
 
     /**
@@ -431,15 +733,12 @@ public class GameState {
      * @return The coordinates of the given tile as an int array of length 2.
      */
     public Coordinates getCoordinates(Tile tile) {
-        for (int i = 0; i < board.size(); i++) {
-            for (int j = 0; j < board.get(0).size(); j++) {
-                if (board.get(i).get(j) != null && board.get(i).get(j).equals(tile)) {
-                    return new Coordinates(i, j);
-                }
-            }
+        if (board.indexOf(tile) == -1) {
+            return null;
         }
 
-        return null;
+        int position = tile.getPosition();
+        return new Coordinates(position / Board.SIZE - board.getMinRow(), position % Board.SIZE - board.getMinColumn());
     }
 
     /**
@@ -459,41 +758,29 @@ public class GameState {
             tileCoords.y -= 1;
         }
 
-        if (getTile(new Coordinates(tileCoords.x - 1, tileCoords.y)) != null) {
-                neighbourMap.put(2, board.get(tileCoords.x - 1).get(tileCoords.y));
-        }
-
-        if (getTile(new Coordinates(tileCoords.x, tileCoords.y - 1)) != null) {
-                neighbourMap.put(3, board.get(tileCoords.x).get(tileCoords.y - 1));
-        }
-
-        if (getTile(new Coordinates(tileCoords.x, tileCoords.y + 1)) != null) {
-                neighbourMap.put(1, board.get(tileCoords.x).get(tileCoords.y + 1));
-        }
-
-        if (getTile(new Coordinates(tileCoords.x + 1, tileCoords.y)) != null) {
-                neighbourMap.put(0, board.get(tileCoords.x + 1).get(tileCoords.y));
-        }
+        addNeighbour(neighbourMap, 2, tileCoords.x - 1, tileCoords.y);
+        addNeighbour(neighbourMap, 3, tileCoords.x, tileCoords.y - 1);
+        addNeighbour(neighbourMap, 1, tileCoords.x, tileCoords.y + 1);
+        addNeighbour(neighbourMap, 0, tileCoords.x + 1, tileCoords.y);
 
         //-----------------------------------------------------
 
-        if (monasteryNeighbours && getTile(new Coordinates(tileCoords.x - 1, tileCoords.y - 1)) != null) {
-            neighbourMap.put(4, board.get(tileCoords.x - 1).get(tileCoords.y - 1));
+        if (monasteryNeighbours) {
+            addNeighbour(neighbourMap, 4, tileCoords.x - 1, tileCoords.y - 1);
+            addNeighbour(neighbourMap, 5, tileCoords.x + 1, tileCoords.y - 1);
+            addNeighbour(neighbourMap, 6, tileCoords.x + 1, tileCoords.y + 1);
+            addNeighbour(neighbourMap, 7, tileCoords.x - 1, tileCoords.y + 1);
         }
 
-        if (monasteryNeighbours && getTile(new Coordinates(tileCoords.x + 1, tileCoords.y - 1)) != null) {
-            neighbourMap.put(5, board.get(tileCoords.x + 1).get(tileCoords.y - 1));
-        }
+        return neighbourMap;
+    }
 
-        if (monasteryNeighbours && getTile(new Coordinates(tileCoords.x + 1, tileCoords.y + 1)) != null) {
-            neighbourMap.put(6, board.get(tileCoords.x + 1).get(tileCoords.y + 1));
-        }
+    private void addNeighbour(Map<Integer, Tile> neighbourMap, int side, int x, int y) {
+        Tile neighbour = getTile(x, y);
 
-        if (monasteryNeighbours && getTile(new Coordinates(tileCoords.x - 1, tileCoords.y + 1)) != null) {
-            neighbourMap.put(7, board.get(tileCoords.x - 1).get(tileCoords.y + 1));
+        if (neighbour != null) {
+            neighbourMap.put(side, neighbour);
         }
-
-        return neighbourMap;
     }
 
     /**
@@ -538,251 +825,342 @@ public class GameState {
         return neighbour.getArea(getOppositePoint(point));
     }
 
-    private int assignNewArea(int type) {
-        areaTypes.put(areaCounter, type);
-        return areaCounter++;
+    /**
+     * @param tile A tile on the board.
+     * @param point The point of the tile in {0, ..., 12}.
+     * @return The area which the point is part of.
+     */
+    public int getArea(Tile tile, int point) {
+        return areas.find(tile.getArea(point));
     }
 
     /**
-     * Replaces an area with another area.
-     * @param replacedArea The area which will be replaced.
-     * @param newArea The area which will replace the other area.
+     * Determines on which points of a tile a meeple may be placed if the tile is placed on the given cell, without
+     * placing it. A meeple may be placed on a point unless the area which the point will be part of already carries a
+     * meeple. These areas are found by looking up the areas of the neighbours which each segment of the tile touches,
+     * where segments touching a common neighbour area form a single area.
+     * @param move The packed move of the tile, whose rotation is relative to the current rotation of the tile like
+     *             that of apply(). Its meeple placement is ignored.
+     * @param tile The tile which is placed, in its current rotation. It is left unchanged.
+     * @return The legal points of the rotated tile as a bitmask with bit i for point i in {0, ..., 12}.
      */
-    private void replaceArea(int replacedArea, int newArea) {
-        for (List<Tile> row : board) {
-            for (Tile tile : row) {
-                for (int i = 0; i <= 12; i++) {
-                    if (tile != null && tile.getArea(i) == replacedArea) {
-                        tile.setArea(i, newArea);
-                    }
-                }
-            }
-        }
+    public int getLegalMeeplePoints(int move, Tile tile) {
+        int row = board.getMinRow() + PackedMove.getX(move) - 1;
+        int column = board.getMinColumn() + PackedMove.getY(move) - 1;
 
-        areaTypes.remove(replacedArea);
-    }
+        TileType tileType = tile.getTileType();
+        int rotation = (tile.getRotation() + PackedMove.getRotation(move)) & 3;
 
-    public List<Tile> getTilesOfArea(int area) {
-        List<Tile> tiles = new ArrayList<>();
+        int meepleSide = tile.getMeepleSide();
 
-        for (List<Tile> row : board) {
-            for (Tile tile : row) {
-                for (int i = 0; i < 12; i++) {
-                    if (tile != null && tile.getArea(i) == area) {
-                        tiles.add(tile);
-                        break;
-                    }
-                }
-            }
+        if (meepleSide != -1 && meepleSide != 12) {
+            meepleSide = (meepleSide + 3 * PackedMove.getRotation(move)) % 12;
         }
 
-        return tiles;
-    }
+        int[] neighbourAreas = new int[12];
 
-    public void checkForScoreAfterRound(boolean verbose) {
-        for (List<Tile> row : board) {
-            for (Tile tile : row) {
-                if (tile != null && tile.hasMeeple()) {
+        for (int point = 0; point < 12; point++) {
+            neighbourAreas[point] = getNeighbourArea(row, column, point);
+        }
 
-                    // If the tile has a monastery
-                    if (tile.getMiddle() == 4 && tile.getMeeple()[0] == 12) {
-                        Map<Integer, Tile> neighbours = getNeighboursByType(getCoordinates(tile), true);
-                        if (neighbours.size() >= 8) {
-                            scores[tile.getMeeple()[1] - 1] += 9;
-                            numMeeples[tile.getMeeple()[1] - 1] += 1;
-                            if (verbose && Engine.verbose) System.out.println("Monastery completed! Player " + tile.getMeeple()[1] + " has gained 9 points.");
-                            tile.removeMeeple();
-                            return;
-                        }
-                    }
+        // Segments which touch the same neighbour area become part of the same area once the tile is placed, so they
+        // are grouped first. Each segment is labelled with a segment of its group.
+        int numSegments = tileType.getNumSegments(rotation);
+        int[] groups = new int[numSegments];
 
-                    if (tile.getPoint(tile.getMeeple()[0]) == 1) {
-                        int points = checkForCityCompletion(tile.getArea(tile.getMeeple()[0]));
-                        if (points != 0) {
-                            scores[tile.getMeeple()[1] - 1] += points;
-                            numMeeples[tile.getMeeple()[1] - 1] += 1;
-                            if (verbose && Engine.verbose) System.out.println("City completed! Player " + tile.getMeeple()[1] + " has gained " + points + " points.");
-                            completedCities.add(tile.getArea(tile.getMeeple()[0]));
-                            tile.removeMeeple();
-                            return;
-                        }
-                    }
+        for (int segment = 0; segment < numSegments; segment++) {
+            groups[segment] = segment;
+
+            for (int other = 0; other < segment; other++) {
+                if (groups[other] != groups[segment] && touchSameArea(tileType.getSegmentPoints(rotation, segment),
+                        tileType.getSegmentPoints(rotation, other), neighbourAreas)) {
+                    int label = groups[segment];
 
-                    if (tile.getPoint(tile.getMeeple()[0]) == 2) {
-                        int points = checkForRoadCompletion(tile.getArea(tile.getMeeple()[0]));
-                        if (points != 0) {
-                            scores[tile.getMeeple()[1] - 1] += points;
-                            numMeeples[tile.getMeeple()[1] - 1] += 1;
-                            if (verbose && Engine.verbose) System.out.println("Road completed! Player " + tile.getMeeple()[1] + " has gained " + points + " points.");
-                            tile.removeMeeple();
-                            return;
+                    for (int member = 0; member <= segment; member++) {
+                        if (groups[member] == label) {
+                            groups[member] = groups[other];
                         }
                     }
-
                 }
             }
         }
-    }
 
-    public void removeMeeple(int player) {
-        numMeeples[player-1]--;
-    }
+        // A group is taken if any of its neighbour areas carries a meeple or if it contains the tile's own meeple.
+        int takenGroups = 0;
 
-    public int getNumMeeples(int player) {
-        return numMeeples[player-1];
-    }
+        for (int segment = 0; segment < numSegments; segment++) {
+            int points = tileType.getSegmentPoints(rotation, segment);
+            boolean taken = tile.hasMeeple() && (points & (1 << meepleSide)) != 0;
+
+            for (int rest = points & 0xFFF; rest != 0 && !taken; rest &= rest - 1) {
+                int area = neighbourAreas[Integer.numberOfTrailingZeros(rest)];
+                taken = area != -1 && areas.getNumMeeples(area, 1) + areas.getNumMeeples(area, 2) > 0;
+            }
+
+            if (taken) {
+                takenGroups |= 1 << groups[segment];
+            }
+        }
+
+        int legalPoints = 0;
 
-    private Set<Integer> getTilesWithOneSidedCity() {
-        Set<Integer> tilesWithOneSidedCity = new TreeSet<>();
+        for (int segment = 0; segment < numSegments; segment++) {
+            if ((takenGroups & (1 << groups[segment])) == 0) {
+                legalPoints |= tileType.getSegmentPoints(rotation, segment);
+            }
+        }
 
-        tilesWithOneSidedCity.add(0);
-        tilesWithOneSidedCity.add(1);
-        tilesWithOneSidedCity.add(2);
-        tilesWithOneSidedCity.add(3);
-        tilesWithOneSidedCity.add(4);
+        // Can't place meeples on intersections.
+        if (tileType.getMiddle() == 3) {
+            legalPoints &= ~(1 << 12);
+        }
 
-        return tilesWithOneSidedCity;
+        return legalPoints;
     }
 
     /**
-     *
-     * @param area The area in question.
-     * @return 0 if the city hasn't been completed, otherwise the number of points which the city has generated.
+     * @param points The points of a segment.
+     * @param otherPoints The points of another segment of the same tile.
+     * @param neighbourAreas The neighbour area of each point in {0, ..., 11}, see getNeighbourArea().
+     * @return True if the two segments touch a common neighbour area.
      */
-    private int checkForCityCompletion(int area) {
-        List<Tile> tiles = getTilesOfArea(area);
-
-        Set<Integer> tilesWithOneSidedCity = getTilesWithOneSidedCity();
-
-        int nrOfPennants = 0;
-        int numberOfFinishersNeeded = 2;
+    private static boolean touchSameArea(int points, int otherPoints, int[] neighbourAreas) {
+        for (int rest = points & 0xFFF; rest != 0; rest &= rest - 1) {
+            int area = neighbourAreas[Integer.numberOfTrailingZeros(rest)];
 
-        for (Tile tile : tiles) {
-            int tileCode = tile.getType();
-            if (tilesWithOneSidedCity.contains(tileCode)) {
-                numberOfFinishersNeeded -= 1;
-            } else if (tileCode == 18) {
-                numberOfFinishersNeeded += 2;
-            } else if (tileCode == 16 || tileCode == 17) {
-                numberOfFinishersNeeded += 1;
+            if (area == -1) {
+                continue;
             }
 
-            if (tile.hasPennant()) {
-                nrOfPennants++;
+            for (int other = otherPoints & 0xFFF; other != 0; other &= other - 1) {
+                if (neighbourAreas[Integer.numberOfTrailingZeros(other)] == area) {
+                    return true;
+                }
             }
         }
 
-        if (numberOfFinishersNeeded != 0) {
-            return 0;
-        } else {
-            return (tiles.size() * 2) + (nrOfPennants * 2);
+        return false;
+    }
+
+    /**
+     * @param row The absolute row of an empty cell.
+     * @param column The absolute column of the cell.
+     * @param point A point of a tile on the cell in {0, ..., 11}.
+     * @return The area of the neighbour which the point would touch or -1 if there's no neighbour on that side.
+     */
+    private int getNeighbourArea(int row, int column, int point) {
+        Tile neighbour;
+
+        switch (point / 3) {
+            case 0: neighbour = board.getTile(row + 1, column); break;
+            case 1: neighbour = board.getTile(row, column + 1); break;
+            case 2: neighbour = board.getTile(row - 1, column); break;
+            default: neighbour = board.getTile(row, column - 1); break;
         }
+
+        return neighbour == null ? -1 : areas.find(getOppositeArea(point, neighbour));
     }
 
-    private int checkForRoadCompletion(int area) {
-        List<Tile> tiles = getTilesOfArea(area);
+    /**
+     * Scores all features which have been completed by the placement of the most recent tile and returns their
+     * meeples. Only the cities and roads of that tile and the monasteries around it can have been completed by the
+     * placement, so the rest of the board isn't looked at. This is why it has to be called after every placement.
+     */
+    public void checkForScoreAfterRound() {
+        int index = board.getNumTiles() - 1;
+        Tile tile = board.getPlacedTile(index);
 
-        int endPoints = 0;
+        int[] consideredAreas = new int[12];
+        int numConsideredAreas = 0;
 
-        for (Tile tile : tiles) {
-            if (tile.getType() == 16 || tile.getType() == 11) {
-                endPoints += 1;
-            } else if (tile.getType() == 3 || tile.getType() == 9 || tile.getType() == 10) {
-                int numRoadsOfGivenType = 0;
+        for (int point = 0; point < 12; point++) {
+            int type = tile.getPoint(point);
 
-                endPoints++;
+            if (type != 1 && type != 2) {
+                continue;
+            }
 
-                if (tile.getArea(1) == area) {
-                    numRoadsOfGivenType += 1;
-                }
+            int area = getArea(tile, point);
+            boolean considered = false;
 
-                if (tile.getArea(4) == area) {
-                    numRoadsOfGivenType += 1;
+            for (int i = 0; i < numConsideredAreas; i++) {
+                if (consideredAreas[i] == area) {
+                    considered = true;
+                    break;
                 }
+            }
 
-                if (tile.getArea(7) == area) {
-                    numRoadsOfGivenType += 1;
+            if (!considered) {
+                consideredAreas[numConsideredAreas++] = area;
+                scoreCompletedFeature(area, type);
+            }
+        }
+
+        int row = board.getPosition(index) / Board.SIZE;
+        int column = board.getPosition(index) % Board.SIZE;
+
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = column - 1; j <= column + 1; j++) {
+                Tile monastery = board.getTile(i, j);
+
+                // The last tile around a monastery completes it, so a completed monastery is only seen once.
+                if (monastery == null || monastery.getMiddle() != 4 || areas.getNumTiles(monastery.getArea(12)) != 9) {
+                    continue;
                 }
 
-                if (tile.getArea(10) == area) {
-                    numRoadsOfGivenType += 1;
+                if (isListening()) {
+                    listener.featureCompleted(areas.find(monastery.getArea(12)), 4, 9);
                 }
 
-                if (numRoadsOfGivenType == 2) {
-                    endPoints = 2;
+                if (monastery.getMeepleSide() == 12) {
+                    int player = monastery.getMeeplePlayer();
+                    addScore(player, 9);
+                    returnMeeple(player);
+
+                    if (isListening()) {
+                        listener.pointsAwarded(player, 9, 4);
+                    }
+
+                    removeMeepleFromTile(board.getIndex(i, j));
                 }
             }
         }
+    }
 
-        if (endPoints == 2) {
-            return tiles.size();
-        } else if (endPoints < 2) {
-            return 0;
-        } else {
-            return -1;
+    /**
+     * Scores a city or road if it has been completed. The points go to the player with the most meeples in the
+     * feature, or to both players if they have the same number of meeples in it, and all meeples of the feature are
+     * returned.
+     * @param area The area of the feature.
+     * @param type 1 for a city, 2 for a road.
+     */
+    private void scoreCompletedFeature(int area, int type) {
+        int points = type == 1 ? checkForCityCompletion(area) : checkForRoadCompletion(area);
+
+        if (points == 0) {
+            return;
         }
-    }
 
-    public void assignPointsAtEndOfGame() {
-        for (int i : areaTypes.keySet()) {
-            // If the area is a field, then we need to evaluate it.
-            if (areaTypes.get(i) == 0) {
-                List<Tile> tilesOfArea = getTilesOfArea(i);
-                List<Integer> consideredCities = new ArrayList<>();
-                int numAdjacentCities = 0;
-
-                for (Tile tile : tilesOfArea) {
-                    for (int point : tile.getPoints()) {
-                        if (completedCities.contains(tile.getArea(point)) && !consideredCities.contains(tile.getArea(point))) {
-                            numAdjacentCities++;
-                            consideredCities.add(tile.getArea(point));
-                        }
-                    }
-                }
+        if (type == 1) {
+            areas.completeCity(area);
+        }
 
-                for (int playerNr : getAreaOwners(i)) {
-                    scores[playerNr - 1] += numAdjacentCities * 3;
-                }
+        if (isListening()) {
+            listener.featureCompleted(area, type, points);
+        }
+
+        for (int playerNr : getAreaOwners(area)) {
+            addScore(playerNr, points);
+
+            if (isListening()) {
+                listener.pointsAwarded(playerNr, points, type);
             }
+        }
 
-            if (areaTypes.get(i) == 1 || areaTypes.get(i) == 2) {
-                for (int playerNr : getAreaOwners(i)) {
+        if (areas.getNumMeeples(area, 1) + areas.getNumMeeples(area, 2) == 0) {
+            return;
+        }
 
-                    List<Tile> tilesOfArea = getTilesOfArea(i);
+        for (int i = 0; i < board.getNumTiles(); i += 32) {
+            int word = meepleTiles.get(i >>> 5);
 
-                    scores[playerNr - 1] += tilesOfArea.size();
-                }
-            }
+            while (word != 0) {
+                int index = i + Integer.numberOfTrailingZeros(word);
+                word &= word - 1;
 
-            if (areaTypes.get(i) == 4) {
-                for (int playerNr : getAreaOwners(i)) {
-                    for (List<Tile> row : board) {
-                        for (Tile tile : row) {
-                            if (tile.getArea(12) == 4) {
-                                Map<Integer, Tile> monasteryTiles = getNeighboursByType(getCoordinates(tile), true);
-                                scores[playerNr - 1] += monasteryTiles.size();
-                                break;
-                            }
-                        }
-                    }
+                Tile tile = board.getPlacedTile(index);
+
+                if (getArea(tile, tile.getMeepleSide()) == area) {
+                    returnMeeple(tile.getMeeplePlayer());
+                    removeMeepleFromTile(index);
                 }
             }
         }
     }
 
-    private int[] getAreaOwners(int area) {
-        int numMeeplesP1 = 0;
-        int numMeeplesP2 = 0;
+    public void removeMeeple(int player) {
+        record(UndoLog.NUM_MEEPLES, null, player - 1, numMeeples[player - 1]);
+        numMeeples[player-1]--;
+    }
 
-        List<Tile> tilesInArea = getTilesOfArea(area);
+    public int getNumMeeples(int player) {
+        return numMeeples[player-1];
+    }
 
-        for (Tile tile : tilesInArea) {
-            if (tile.getMeeple()[1] == 1 && area == tile.getArea(tile.getMeeple()[0])) {
-                numMeeplesP1++;
-            } else if (tile.getMeeple()[1] == 2 && area == tile.getArea(tile.getMeeple()[0])) {
-                numMeeplesP2++;
-            }
+    /**
+     *
+     * @param area The area in question.
+     * @return 0 if the city hasn't been completed, otherwise the number of points which the city has generated.
+     */
+    private int checkForCityCompletion(int area) {
+        if (areas.getNumOpenEdges(area) != 0) {
+            return 0;
+        } else {
+            return (areas.getNumTiles(area) * 2) + (areas.getNumPennants(area) * 2);
+        }
+    }
+
+    /**
+     * @param area The area in question.
+     * @return 0 if the road hasn't been completed, otherwise the number of points which the road has generated.
+     */
+    private int checkForRoadCompletion(int area) {
+        if (areas.getNumOpenEdges(area) != 0) {
+            return 0;
+        } else {
+            return areas.getNumTiles(area);
         }
+    }
+
+    /**
+     * Awards the points for all unfinished features. These are kept up to date while the game is played, see
+     * getProjectedScore().
+     */
+    public void assignPointsAtEndOfGame() {
+        int points1 = areas.getProjectedScore(1);
+        int points2 = areas.getProjectedScore(2);
+
+        addScore(1, points1);
+        addScore(2, points2);
+
+        if (isListening()) {
+            listener.pointsAwarded(1, points1, -1);
+            listener.pointsAwarded(2, points2, -1);
+        }
+    }
+
+    /**
+     * @param player The ID of the player.
+     * @return The score the player would have if the game ended now, i.e., including the points for the unfinished
+     * features. The state isn't changed.
+     */
+    public int getProjectedScore(int player) {
+        return scores[player - 1] + areas.getProjectedScore(player);
+    }
+
+    /**
+     * Determines what a move would do to the score without copying the state: the move is applied, which only touches
+     * the areas around the tile, and undone right away. The points of unfinished features are taken into account, see
+     * getProjectedScore().
+     * @param move The packed move including the meeple placement, see apply(int, Tile).
+     * @param tile The tile which would be placed, in its current rotation. It is left unchanged.
+     * @param player The ID of the player in question.
+     * @return The change of the projected score of the player minus the change of the projected score of the opponent.
+     */
+    public int getScoreDelta(int move, Tile tile, int player) {
+        int opponent = player == 1 ? 2 : 1;
+        int previousDifference = getProjectedScore(player) - getProjectedScore(opponent);
+
+        apply(move, tile);
+        int difference = getProjectedScore(player) - getProjectedScore(opponent);
+        undo();
+
+        return difference - previousDifference;
+    }
+
+    private int[] getAreaOwners(int area) {
+        int numMeeplesP1 = areas.getNumMeeples(area, 1);
+        int numMeeplesP2 = areas.getNumMeeples(area, 2);
 
         if (numMeeplesP1 > numMeeplesP2) {
             return new int[]{1};
@@ -0,0 +1,65 @@
+/**
+ * Receives the events of a game state as they happen, e.g. to print what a move did or to collect statistics, without
+ * having to compare the state before and after the move. A listener is attached with GameState.setListener(). The
+ * events only consist of primitive values, so emitting them doesn't allocate anything, and a state without a listener
+ * doesn't do any work for them at all.
+ * <p>
+ * Areas are given as they are when the event is emitted; merging two areas doesn't change the areas that have been
+ * reported before, but one of them stops being a root. Types are the types of areas: 0 field, 1 city, 2 road,
+ * 4 monastery. Changes made while the state records them to be undone, i.e., between GameState.mark() or
+ * GameState.apply() and GameState.undo(), aren't reported, so evaluating a move doesn't emit anything. Copies of a state
+ * don't inherit its listener.
+ */
+interface GameStateListener {
+
+    /**
+     * A segment of a placed tile which isn't connected to any existing area has become a new area.
+     * @param area The new area.
+     * @param type The type of the area.
+     */
+    default void areaCreated(int area, int type) {
+    }
+
+    /**
+     * A placed tile has connected two areas.
+     * @param root The root of the merged area.
+     * @param merged The root of the other area, which is part of the merged area from now on.
+     */
+    default void areasMerged(int root, int merged) {
+    }
+
+    /**
+     * A city, road or monastery has been completed, regardless of whether it has any owners.
+     * @param area The root of the feature.
+     * @param type The type of the feature.
+     * @param points The points which the owners of the feature get.
+     */
+    default void featureCompleted(int area, int type, int points) {
+    }
+
+    /**
+     * @param cell The absolute cell index of the tile on which the meeple was placed.
+     * @param point The point of the rotated tile on which the meeple stands.
+     * @param player The ID of the player to whom the meeple belongs.
+     */
+    default void meeplePlaced(int cell, int point, int player) {
+    }
+
+    /**
+     * A meeple has been returned to its owner, since its feature has been completed.
+     * @param cell The absolute cell index of the tile from which the meeple was taken.
+     * @param point The point of the rotated tile on which the meeple stood.
+     * @param player The ID of the player to whom the meeple belongs.
+     */
+    default void meepleReturned(int cell, int point, int player) {
+    }
+
+    /**
+     * @param player The ID of the player who gets the points.
+     * @param points The number of points.
+     * @param type The type of the completed feature for which the points are awarded, or -1 for the points of the
+     *             unfinished features at the end of the game.
+     */
+    default void pointsAwarded(int player, int points, int type) {
+    }
+}
@@ -11,225 +11,193 @@ public class GameStateSpace {
     }
 
     public List<Move> placementSucc(GameState state, Tile tile) {
-        List<Move> successors = new ArrayList<>();
+        int[] moves = new int[PackedMove.MAX_MOVES];
+        int numMoves = placementSucc(state, tile, moves);
 
-        Tile drawnTile = new Tile(tile);
+        List<Move> successors = new ArrayList<>(numMoves);
 
-        int[] boardDimensions = state.getBoardDimensions();
-        boardDimensions[0] += 2;
-        boardDimensions[1] += 2;
-
-        for (int i = 0; i < boardDimensions[0]; i++) {
-            for (int j = 0; j < boardDimensions[1]; j++) {
-                Coordinates move = new Coordinates(i, j);
-                for (int rotation = 0; rotation < 4; rotation++) {
-                    if (isLegalMove(move, drawnTile, state)) {
-                        Move arst = new Move(move, rotation);
-                        successors.add(arst);
-                    }
-                    drawnTile.rotate();
-                }
-            }
+        for (int i = 0; i < numMoves; i++) {
+            successors.add(PackedMove.toMove(moves[i]));
         }
 
         return successors;
     }
 
     /**
-     *
-     * @param state The state in question.
-     * @param tile The tile in question.
-     * @return Subset of {0, ..., 12}, denoting the sides on which meeples can be placed.
+     * Generates the legal moves of a tile without allocating any objects per move.
+     * @param state The current game state.
+     * @param tile The tile which should be placed.
+     * @param moves The buffer into which the moves are written as packed moves without meeple placement (see
+     *              PackedMove). It needs room for PackedMove.MAX_MOVES moves.
+     * @return The number of moves.
      */
-    public List<Integer> meepleSucc(GameState state, Tile tile, Coordinates move, int player) {
-        List<Integer> placements = new ArrayList<>();
-        placements.add(-1);
+    public int placementSucc(GameState state, Tile tile, int[] moves) {
+        int numMoves = 0;
 
-        if (state.getNumMeeples(player) == 0) {
-            return placements;
-        }
+        TileType tileType = tile.getTileType();
+        Board board = state.getBoard();
 
-        for (int point = 0; point <= 12; point++) {
-            if (checkIfLegalMeeplePlacement(tile, point, move, state)) {
-                placements.add(point);
-            }
-        }
+        // The packed points of the tile for each rotation of a move, which is relative to the current rotation. They
+        // are -1 for rotations which result in the same tile as another rotation, since those moves are redundant.
+        int[] packedPoints = new int[4];
 
-        return placements;
-    }
+        for (int rotation = 0; rotation < 4; rotation++) {
+            int absoluteRotation = (tile.getRotation() + rotation) & 3;
 
-    /**
-     * Checks if a move is legal.
-     * @param coords The place to put the tile.
-     * @param tile The tile which should be placed.
-     * @param state The current game state.
-     * @return True if the move is legal.
-     */
-    private boolean isLegalMove(Coordinates coords, Tile tile, GameState state) {
-
-        if (coords.x > 0 && coords.x <= state.getBoardDimensions()[0] && coords.y > 0 && coords.y <= state.getBoardDimensions()[1]) {
-            if (state.getTile(new Coordinates(coords.x-1, coords.y-1)) != null) {
-                return false;
+            if ((tileType.getDistinctRotations() & (1 << absoluteRotation)) == 0) {
+                packedPoints[rotation] = -1;
+            } else {
+                packedPoints[rotation] = tileType.getPackedPoints(absoluteRotation);
             }
         }
 
-        // If the new tile is placed such that a new row and a new column of the board are created, then it necessarily
-        // follows that the tile doesn't connect to any tile on the board and therefore the move must be illegal.
-        if (coords.x >= state.getBoardDimensions()[0] + 1 && coords.y >= state.getBoardDimensions()[1] + 1) {
-            return false;
-        }
+        long[] legalCells = new long[4];
 
-        boolean[] connected = new boolean[]{true, true, true, true};
-
-        if (coords.x == 0) {
-            connected = new boolean[]{true, false, false, false};
-        } else if (coords.y == 0) {
-            connected = new boolean[]{false, true, false, false};
-        } else if (coords.x == state.getBoardDimensions()[0] + 1) {
-            connected = new boolean[]{false, false, true, false};
-        } else if (coords.y == state.getBoardDimensions()[1] + 1) {
-            connected = new boolean[]{false, false, false, true};
-        } else {
-            if (state.getTile(new Coordinates(coords.x, coords.y - 1)) == null) {
-                connected[0] = false;
-            }
+        // Only the rows and columns around the bounding box can be connected to the board. The cells are traversed in
+        // row-major order, which is the order in which the moves have always been generated.
+        for (int row = board.getMinRow() - 1; row <= board.getMaxRow() + 1; row++) {
+            for (int word = (board.getMinColumn() - 1) >>> 6; word <= (board.getMaxColumn() + 1) >>> 6; word++) {
+                long anyRotation = 0;
 
-            if (state.getTile(new Coordinates(coords.x - 1, coords.y)) == null) {
-                connected[1] = false;
-            }
+                for (int rotation = 0; rotation < 4; rotation++) {
+                    legalCells[rotation] = packedPoints[rotation] == -1 ? 0 : board.getLegalCells(row, word, packedPoints[rotation]);
+                    anyRotation |= legalCells[rotation];
+                }
 
-            if (state.getTile(new Coordinates(coords.x - 2, coords.y - 1)) == null) {
-                connected[2] = false;
-            }
+                while (anyRotation != 0) {
+                    int bit = Long.numberOfTrailingZeros(anyRotation);
+                    anyRotation &= anyRotation - 1;
 
-            if (state.getTile(new Coordinates(coords.x - 1, coords.y - 2)) == null) {
-                connected[3] = false;
-            }
-        }
+                    // The coordinates in the placement space, which has an additional row and column on each side.
+                    int x = row - board.getMinRow() + 1;
+                    int y = (word << 6) + bit - board.getMinColumn() + 1;
 
-        try {
-            if (connected[0] && state.getTile(new Coordinates(coords.x, coords.y - 1)).getPoint(7) != tile.getPoint(1)) {
-                return false;
+                    for (int rotation = 0; rotation < 4; rotation++) {
+                        if ((legalCells[rotation] & (1L << bit)) != 0) {
+                            moves[numMoves++] = PackedMove.encode(x, y, rotation, -1);
+                        }
+                    }
+                }
             }
+        }
 
-            if (connected[1] && state.getTile(new Coordinates(coords.x - 1, coords.y)).getPoint(10) != tile.getPoint(4)) {
-                return false;
-            }
+        return numMoves;
+    }
 
-            if (connected[2] && state.getTile(new Coordinates(coords.x - 2, coords.y - 1)).getPoint(1) != tile.getPoint(7)) {
-                return false;
-            }
+    /**
+     * Checks whether a tile can be placed anywhere on the board, without generating the moves.
+     * @param state The current game state.
+     * @param tile The tile in question.
+     * @return True if there is at least one legal move for the tile.
+     */
+    public boolean isPlaceable(GameState state, Tile tile) {
+        TileType tileType = tile.getTileType();
 
-            if (connected[3] && state.getTile(new Coordinates(coords.x - 1, coords.y - 2)).getPoint(4) != tile.getPoint(10)) {
-                return false;
+        for (int cell = state.getNextFrontierCell(0); cell != -1; cell = state.getNextFrontierCell(cell + 1)) {
+            if (tileType.getLegalRotations(state.getEdgeSignature(cell)) != 0) {
+                return true;
             }
-        } catch (NullPointerException e) {
-            // This is a bodge.
-            return false;
         }
 
-        // The move needs to be connected on least one side.
-        return connected[0] || connected[1] || connected[2] || connected[3];
+        return false;
     }
 
-    private boolean checkIfLegalMeeplePlacement(Tile tile, int point, Coordinates coords, GameState state) {
+    /**
+     *
+     * @param state The state in question.
+     * @param tile The tile in question, in the rotation in which the move was generated.
+     * @param move The move of the tile, whose rotation is relative to the current rotation of the tile.
+     * @return Subset of {0, ..., 12}, denoting the sides of the rotated tile on which meeples can be placed.
+     */
+    public List<Integer> meepleSucc(GameState state, Tile tile, Move move, int player) {
+        int[] moves = new int[PackedMove.MAX_MEEPLES];
+        int numMoves = meepleSucc(state, tile, PackedMove.encode(move, -1), player, moves);
 
-        // Can't place meeples on intersections.
-        if (point == 12 && tile.getMiddle() == 3) {
-            return false;
+        List<Integer> placements = new ArrayList<>(numMoves);
+
+        for (int i = 0; i < numMoves; i++) {
+            placements.add(PackedMove.getMeeplePlacement(moves[i]));
         }
 
-        // Use the copy constructors to create deep copies of the state and the tile in order to operate on them
-        // without changing the actual state and tile.
-        GameState potentialState = new GameState(state);
-        Tile potentialTile = new Tile(tile);
+        return placements;
+    }
 
-        potentialState.updateBoard(coords, potentialTile);
+    /**
+     * Same as meepleSucc(GameState, Tile, Move, int), but for packed moves.
+     * @param tile The tile in question, in the rotation in which the move was generated.
+     * @param move The packed move of the tile.
+     * @param moves The buffer into which the given move is written with each legal meeple placement, starting with
+     *              the one without a meeple. It needs room for PackedMove.MAX_MEEPLES moves.
+     * @return The number of moves.
+     */
+    public int meepleSucc(GameState state, Tile tile, int move, int player, int[] moves) {
+        int numMoves = 0;
 
-        List<Tile> tilesInArea;
+        moves[numMoves++] = PackedMove.withMeeplePlacement(move, -1);
 
-        if (point == 12) {
-            tilesInArea = potentialState.getTilesOfArea(potentialTile.getMiddleArea());
-        } else {
-            tilesInArea = potentialState.getTilesOfArea(potentialTile.getArea(point));
+        if (state.getNumMeeples(player) == 0) {
+            return numMoves;
         }
 
-        for (Tile tileInArea : tilesInArea) {
-            if (tileInArea.getMeeple()[0] != -1 && tileInArea.getArea(tileInArea.getMeeple()[0]) == potentialTile.getArea(point)) {
-                return false;
+        int legalPoints = state.getLegalMeeplePoints(move, tile);
+
+        for (int point = 0; point <= 12; point++) {
+            if ((legalPoints & (1 << point)) != 0) {
+                moves[numMoves++] = PackedMove.withMeeplePlacement(move, point);
             }
         }
 
-        return true;
+        return numMoves;
     }
 
     /**
      * Rates the quality of a move (without meeple placement) given a board and a tile.
-     * @param originalState The state on which the placement is to take place.
+     * @param state The state on which the placement is to take place. It is left unchanged.
      * @param move The move to be rated.
-     * @param originalTile The tile to be rotated and placed.
+     * @param tile The tile to be rotated and placed, in its original orientation.
      * @param player The ID of the player in question
      * @return A rating of the move. The higher, the better.
      */
-    public int moveHeuristic(GameState originalState, Move move, Tile originalTile, int player) {
-        int output;
-
-        GameState state = new GameState(originalState);
-        Tile tile = new Tile(originalTile);
-        tile.rotateBy(move.getRotation());
-
-        int prevScore = state.getScore()[player-1];
-        int prevScoreOp = player == 1 ? state.getScore()[1] : state.getScore()[0];
-
-        state.updateBoard(move.getCoords(), tile);
-        state.checkForScoreAfterRound(false);
-        state.assignPointsAtEndOfGame();
-        int updatedScore = state.getScore()[player-1];
-        int updatedScoreOp = player == 1 ? state.getScore()[1] : state.getScore()[0];
+    public int moveHeuristic(GameState state, Move move, Tile tile, int player) {
+        return moveHeuristic(state, PackedMove.encode(move, -1), tile, player);
+    }
 
+    /**
+     * Same as moveHeuristic(GameState, Move, Tile, int) for a packed move. Its meeple placement is ignored.
+     */
+    public int moveHeuristic(GameState state, int move, Tile tile, int player) {
         // The difference between the updated and the previous score minus the difference between the updated and the
         // previous score of the opponent.
-        output = updatedScore - prevScore - (updatedScoreOp - prevScoreOp);
-
-        return output;
+        return state.getScoreDelta(PackedMove.withMeeplePlacement(move, -1), tile, player);
     }
 
     /**
-     * Rates the quality of a meeple placement given a board, a tile and a move.
-     * @param originalState The state on which the placement is to take place.
-     * @param originalTile The tile to be rotated and placed.
+     * Rates the quality of a meeple placement given a board, a tile and a move. The meeple placement is rated as
+     * part of the whole move, since the points it yields depend on the areas which the tile joins.
+     * @param state The state on which the placement is to take place. It is left unchanged.
+     * @param move The move of the tile.
+     * @param tile The tile to be rotated and placed, in its original orientation.
+     * @param placement The point of the rotated tile on which the meeple is placed or -1.
      * @param player The ID of the player in question
      * @return A rating of the move. The higher, the better.
      */
-    public int meepleHeuristic(GameState originalState, Tile originalTile, int placement, int player) {
-        int output;
-
-        GameState state = new GameState(originalState);
-        Tile tile = new Tile(originalTile);
-
-        int prevScore = state.getScore()[player-1];
-        int prevScoreOp = player == 1 ? state.getScore()[1] : state.getScore()[0];
-
-        state.placeMeeple(placement, player, tile);
-
-        state.checkForScoreAfterRound(false);
-        state.assignPointsAtEndOfGame();
-        int updatedScore = state.getScore()[player-1];
-        int updatedScoreOp = player == 1 ? state.getScore()[1] : state.getScore()[0];
-
-        // The difference between the updated and the previous score minus the difference between the updated and the
-        // previous score of the opponent.
-        output = updatedScore - prevScore - (updatedScoreOp - prevScoreOp);
+    public int meepleHeuristic(GameState state, Move move, Tile tile, int placement, int player) {
+        return meepleHeuristic(state, PackedMove.encode(move, placement), tile, player);
+    }
 
-        return output;
+    /**
+     * Same as meepleHeuristic(GameState, Move, Tile, int, int) for a packed move including the meeple placement.
+     */
+    public int meepleHeuristic(GameState state, int move, Tile tile, int player) {
+        return state.getScoreDelta(move, tile, player);
     }
 
-    public int getIndexOfBestMeeplePlacement(GameState state, Tile tile, List<Integer> placements, int player, Random random) {
+    public int getIndexOfBestMeeplePlacement(GameState state, Move move, Tile tile, List<Integer> placements, int player, Random random) {
         int index = -1;
         int maxValue = Integer.MIN_VALUE;
 
         for (int i = 0; i < placements.size(); i++) {
-            int h = meepleHeuristic(state, tile, placements.get(i), player);
+            int h = meepleHeuristic(state, move, tile, placements.get(i), player);
             if (h > maxValue || (h == maxValue && random.nextFloat() < 0.3)) {
                 maxValue = h;
                 index = i;
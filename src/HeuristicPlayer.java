@@ -40,15 +40,14 @@ public class HeuristicPlayer extends Player{
         }
 
         Move move = legalMoves.get(indexOfHighestPlacementValue);
-        tile.rotateBy(move.getRotation());
 
-        List<Integer> legalMeeples = stateSpace.meepleSucc(state, tile, move.getCoords(), playerID);
+        List<Integer> legalMeeples = stateSpace.meepleSucc(state, tile, move, playerID);
         Collections.shuffle(legalMeeples, random);
         int highestMeepleValue = Integer.MIN_VALUE;
         int bestMeeplePlacement = -1;
 
         for (int point : legalMeeples) {
-            int h = stateSpace.meepleHeuristic(state, tile, point, playerID);
+            int h = stateSpace.meepleHeuristic(state, move, tile, point, playerID);
             if (h > highestMeepleValue) {
                 highestMeepleValue = h;
                 bestMeeplePlacement = point;
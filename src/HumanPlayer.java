@@ -37,7 +37,8 @@ public class HumanPlayer extends Player {
                 int co1 = (input.charAt(0) - 97);
                 int co2 = (Integer.parseInt(input.substring(1)) - 1);
 
-                move = new Move(new Coordinates(co1, co2), tile.getRotation());
+                // Only one of the rotations which result in the same tile is among the legal moves.
+                move = new Move(new Coordinates(co1, co2), tile.getTileType().getCanonicalRotation(tile.getRotation()));
             } catch (NumberFormatException nfe) {
                 System.out.println("You haven't provided valid coordinates as input. For example the top right corner" +
                         "is denoted by the coordinates 'a1'.");
@@ -53,6 +53,25 @@ public class MCTSPlayer extends Player {
 
     private final boolean deckCheat;
 
+    /**
+     *  Reusable buffers for the packed moves generated during the playouts.
+     */
+    private final int[] playoutMoves = new int[PackedMove.MAX_MOVES];
+    private final int[] playoutMeeples = new int[PackedMove.MAX_MEEPLES];
+
+    /**
+     *  The state of the root of the search tree, which is overwritten for every move instead of being allocated anew.
+     */
+    private final GameState rootState = new GameState();
+
+    /**
+     *  The tiles of the deck for the playouts and the list from which they are drawn in an iteration. The tiles are
+     *  copied once per move rather than once per iteration, since a playout takes back all of its moves and thereby
+     *  leaves the tiles as they were, apart from their rotation.
+     */
+    private final Tile[] playoutTiles = new Tile[Board.MAX_TILES];
+    private final List<Tile> playoutDeck = new ArrayList<>(Board.MAX_TILES);
+
     File file;
     FileWriter fw;
     BufferedWriter br;
@@ -117,7 +136,9 @@ public class MCTSPlayer extends Player {
 
     @Override
     Pair decideOnNextMove(GameState originalState, Tile tile, List<Tile> originalDeck, List<Move> legalMoves) throws IOException {
-        GameState state = new GameState(originalState);
+        GameState state = rootState;
+        originalState.copyInto(state);
+
         Node root = new Node(state, 0, new Move(null, 0), tile);
 
         generateGraphvizData = originalDeck.size() >= 70 && generateGraphvizData;
@@ -155,6 +176,10 @@ public class MCTSPlayer extends Player {
             }
         }
 
+        for (int i = 0; i < originalDeck.size(); i++) {
+            playoutTiles[i] = new Tile(originalDeck.get(i));
+        }
+
         int[] moveChoices = new int[ensembleIterations];
         int[] meeplePlacements = new int[ensembleIterations];
 
@@ -164,7 +189,7 @@ public class MCTSPlayer extends Player {
                     explorationConst = originalExplorationConst / (i+1);
                 }
 
-                List<Tile> deck = Engine.copyDeck(originalDeck);
+                List<Tile> deck = resetPlayoutDeck(originalDeck);
 
                 if (ensemble) {
                     Collections.shuffle(deck, random);
@@ -219,6 +244,22 @@ public class MCTSPlayer extends Player {
         else return new Pair(moveChoices[0], meeplePlacements[0]);
     }
 
+    /**
+     * Refills the deck of the playouts with the tiles of the original deck in their original order and rotation.
+     * @param originalDeck The deck which the tiles have been copied from.
+     * @return The deck of the playouts.
+     */
+    private List<Tile> resetPlayoutDeck(List<Tile> originalDeck) {
+        playoutDeck.clear();
+
+        for (int i = 0; i < originalDeck.size(); i++) {
+            playoutTiles[i].setRotation(originalDeck.get(i).getRotation());
+            playoutDeck.add(playoutTiles[i]);
+        }
+
+        return playoutDeck;
+    }
+
     static int mostFrequent(int[] arr)
     {
         // Sort the array
@@ -292,78 +333,74 @@ public class MCTSPlayer extends Player {
     }
 
     private int[] defaultPolicy(Node node, List<Tile> deck, String type) {
-        GameState state = new GameState(node.getState());
-
         if (type.equals("direct-heuristic") && deck.size() > 0) {
-            node.getState().assignPointsAtEndOfGame();
-            return node.getState().getScore();
+            return new int[]{node.getState().getProjectedScore(1), node.getState().getProjectedScore(2)};
         }
 
+        // The playout is performed on the node's state itself. Every move is undone once the payoff is known.
+        GameState state = node.getState();
+        int numMoves = 0;
+
         while (deck.size() > 0) {
             Tile tile = Engine.drawTile(deck);
-            List<Move> actions = stateSpace.placementSucc(state, tile);
+            int numActions = stateSpace.placementSucc(state, tile, playoutMoves);
 
-            if (actions.isEmpty()) {
+            if (numActions == 0) {
                 deck.add(tile);
                 Collections.shuffle(deck, random);
                 continue;
             }
 
-            Move action;
+            int action;
 
             if (type.contains("heuristic")) {
-                action = new Move(new Coordinates(-1, -1), -1);
+                action = playoutMoves[0];
                 int bestH = Integer.MIN_VALUE;
 
-                for (Move cand : actions) {
-                    int h = stateSpace.moveHeuristic(state, cand, tile, state.getPlayer());
+                for (int i = 0; i < numActions; i++) {
+                    int h = stateSpace.moveHeuristic(state, playoutMoves[i], tile, state.getPlayer());
                     if (h > bestH) {
                         bestH = h;
-                        action = cand;
+                        action = playoutMoves[i];
                     }
                 }
             } else if (type.equals("random")) {
-                action = actions.get(random.nextInt(actions.size()));
+                action = playoutMoves[random.nextInt(numActions)];
             } else {
-                action = null;
+                action = -1;
                 System.out.println("Invalid default policy.");
                 System.exit(1);
             }
 
-            for (int i = 0; i < action.getRotation(); i++) {
-                tile.rotate();
-            }
-
-            int meeplePlacement = -1;
-            List<Integer> legalMeeples = stateSpace.meepleSucc(state, tile, action.getCoords(), playerID);
+            int numMeeples = stateSpace.meepleSucc(state, tile, action, playerID, playoutMeeples);
 
             if (type.equals("heuristic")) {
                 int bestH = Integer.MIN_VALUE;
 
-                for (int meeple : legalMeeples) {
-                    int h = stateSpace.meepleHeuristic(state, tile, meeple, state.getPlayer());
+                for (int i = 0; i < numMeeples; i++) {
+                    int h = stateSpace.meepleHeuristic(state, playoutMeeples[i], tile, state.getPlayer());
                     if (h > bestH) {
                         bestH = h;
-                        meeplePlacement = meeple;
+                        action = playoutMeeples[i];
                     }
                 }
             } else {
                 if (random.nextFloat() < meeplePlacementProbability) {
-                    meeplePlacement = legalMeeples.get(random.nextInt(legalMeeples.size()));
+                    action = playoutMeeples[random.nextInt(numMeeples)];
                 }
             }
 
-            if (meeplePlacement > -1) {
-                state.placeMeeple(meeplePlacement, state.getPlayer(), tile);
-            }
+            state.apply(action, tile);
+            numMoves++;
+        }
 
-            state.updateBoard(action.getCoords(), tile);
+        int[] payoff = new int[]{state.getProjectedScore(1), state.getProjectedScore(2)};
 
-            state.checkForScoreAfterRound(false);
+        for (int i = 0; i < numMoves; i++) {
+            state.undo();
         }
 
-        state.assignPointsAtEndOfGame();
-        return state.getScore();
+        return payoff;
     }
 
     private void backup(Node node, int[] payoff, int iteration, int constant) {
@@ -431,23 +468,29 @@ public class MCTSPlayer extends Player {
         if (!parent.hasChildren()) return parent;
 
         for (Node child : parent.getChildren()) {
-            if (type == 0 && stateSpace.moveHeuristic(parent.getState(), child.getMove(), parent.getDrawnTile(), parent.getState().getPlayer()) > highestH) {
-                highestH = stateSpace.moveHeuristic(parent.getState(), child.getMove(), parent.getDrawnTile(), parent.getState().getPlayer());
-                bestNode = child;
-            } else if (type == 1 && stateSpace.meepleHeuristic(parent.getState(), parent.getDrawnTile(), child.getMeeplePlacement(), parent.getState().getPlayer()) > highestH) {
-                highestH = stateSpace.meepleHeuristic(parent.getState(), parent.getDrawnTile(), child.getMeeplePlacement(), parent.getState().getPlayer());
-                bestNode = child;
-            } else if (type == 2) {
+            if (type == 2) {
                 bestNode = parent.getRandomChild(random);
                 break;
             }
+
+            // The meeple nodes carry the move whose meeple placements the chance nodes below them represent.
+            int h = type == 0
+                    ? stateSpace.moveHeuristic(parent.getState(), child.getMove(), parent.getDrawnTile(), parent.getState().getPlayer())
+                    : stateSpace.meepleHeuristic(parent.getState(), parent.getMove(), parent.getDrawnTile(), child.getMeeplePlacement(), parent.getState().getPlayer());
+
+            if (h > highestH) {
+                highestH = h;
+                bestNode = child;
+            }
         }
 
         return bestNode;
     }
 
     private List<Node> getMeepleNodes(Node parent) {
-        List<Move> actions = stateSpace.placementSucc(parent.getState(), parent.getDrawnTile());
+        PlacementContext context = parent.getPlacementContext();
+
+        List<Move> actions = context != null ? context.getMoves(parent.getDrawnTile()) : stateSpace.placementSucc(parent.getState(), parent.getDrawnTile());
         List<Node> meepleNodes = new ArrayList<>();
 
         for (Move action : actions) {
@@ -460,7 +503,7 @@ public class MCTSPlayer extends Player {
     }
 
     private List<Node> getChanceNodes(Node parent) {
-        List<Integer> legalMeeplePlacements = stateSpace.meepleSucc(parent.getState(), parent.getDrawnTile(), parent.getCoords(), playerID);
+        List<Integer> legalMeeplePlacements = stateSpace.meepleSucc(parent.getState(), parent.getDrawnTile(), parent.getMove(), playerID);
         List<Node> chanceNodes = new ArrayList<>();
 
         Node trivialChanceNode = new Node(parent, 2);
@@ -487,36 +530,33 @@ public class MCTSPlayer extends Player {
         List<Node> placementNodes = new ArrayList<>();
         List<Integer> consideredTiles = new ArrayList<>();
 
-        // I know, it's a duplicate code fragment, but it works...
-        if (ensemble || deckCheat) {
-            Tile tile = new Tile(deck.remove(0));
+        // The outcomes of a chance node only differ in the drawn tile, so they all share the state after the move and
+        // the placements on its board.
+        GameState newState = new GameState(parent.getState());
 
-            GameState newState = new GameState(parent.getState());
+        Tile newTile = new Tile(parent.getDrawnTile());
 
-            Tile newTile = new Tile(parent.getDrawnTile());
+        newTile.rotateBy(parent.getRotation());
+        newState.placeMeeple(parent.getMeeplePlacement(), parent.getState().getPlayer(), newTile);
 
-            newTile.rotateBy(parent.getRotation());
-            newState.placeMeeple(parent.getMeeplePlacement(), parent.getState().getPlayer(), newTile);
+        newState.updateBoard(parent.getCoords(), newTile);
+        newState.checkForScoreAfterRound();
 
-            newState.updateBoard(parent.getCoords(), newTile);
+        PlacementContext context = new PlacementContext(newState);
+
+        if (ensemble || deckCheat) {
+            Tile tile = new Tile(deck.remove(0));
 
             Node placementNode = new Node(newState, 0, new Move(new Coordinates(-1, -1), 0), new Tile(tile));
+            placementNode.setPlacementContext(context);
             placementNodes.add(placementNode);
         } else {
             for (Tile tile : deck) {
                 if (!consideredTiles.contains(tile.getType())) {
                     consideredTiles.add(tile.getType());
 
-                    GameState newState = new GameState(parent.getState());
-
-                    Tile newTile = new Tile(parent.getDrawnTile());
-
-                    newTile.rotateBy(parent.getRotation());
-                    newState.placeMeeple(parent.getMeeplePlacement(), parent.getState().getPlayer(), newTile);
-
-                    newState.updateBoard(parent.getCoords(), newTile);
-
                     Node placementNode = new Node(newState, 0, new Move(new Coordinates(-1, -1), 0), new Tile(tile));
+                    placementNode.setPlacementContext(context);
                     placementNodes.add(placementNode);
                 }
             }
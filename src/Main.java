@@ -5,6 +5,7 @@ public class Main {
         Player player1;
         Player player2;
         long deckRandomSeed;
+        Position position = null;
 
         ArgParser argParser = new ArgParser();
 
@@ -20,10 +21,15 @@ public class Main {
             player1 = players[0];
             player2 = players[1];
             deckRandomSeed = argParser.getDeckRandomSeed();
+            position = argParser.getPosition();
         }
 
         Engine engine = new Engine(player1, player2, deckRandomSeed);
 
+        if (position != null) {
+            engine.setStartingPosition(position);
+        }
+
         engine.play();
     }
 }
@@ -23,15 +23,15 @@ public class MinimaxPlayer extends Player {
         int indexOfMaxValue = -1;
         int maxValue = Integer.MIN_VALUE;
 
+        GameState searchState = new GameState(state);
+        Tile searchTile = new Tile(tile);
+
         for (int i = 0; i < successors.size(); i++) {
             Move move = successors.get(i);
-            GameState newState = new GameState(state);
-            Tile newTile = new Tile(tile);
-            newTile.rotateBy(move.getRotation());
-
-            newState.updateBoard(move.getCoords(), newTile);
 
-            int value = minimax(newState, deck, 0, true, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            searchState.apply(move, searchTile, -1);
+            int value = minimax(searchState, deck, 0, true, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            searchState.undo();
 
             values.add(value);
 
@@ -46,10 +46,8 @@ public class MinimaxPlayer extends Player {
 
         if (random.nextFloat() < meeplePlacementProbability) {
             Move move = successors.get(indexOfMaxValue);
-            Tile newTile = new Tile(tile);
-            newTile.rotateBy(move.getRotation());
-            List<Integer> meepleSuccessors = stateSpace.meepleSucc(state, newTile, move.getCoords(), playerID);
-            int index = stateSpace.getIndexOfBestMeeplePlacement(state, newTile, meepleSuccessors, state.getPlayer(), random);
+            List<Integer> meepleSuccessors = stateSpace.meepleSucc(state, searchTile, move, playerID);
+            int index = stateSpace.getIndexOfBestMeeplePlacement(state, move, searchTile, meepleSuccessors, state.getPlayer(), random);
             meeplePlacement = meepleSuccessors.get(index);
         }
 
@@ -66,21 +64,14 @@ public class MinimaxPlayer extends Player {
         Tile drawnTile = Engine.drawTile(deck);
         List<Move> moves = stateSpace.placementSucc(state, drawnTile);
 
+        // The moves are executed on the given state and undone after the subtree has been evaluated, so the whole
+        // search operates on a single state.
         if (isMaximisingPlayer) {
             int value = Integer.MIN_VALUE;
             for (Move move : moves) {
-                GameState newState = new GameState(state);
-                Tile tile = new Tile(drawnTile);
-                tile.rotateBy(move.getRotation());
-
-                if (random.nextFloat() < meeplePlacementProbability) {
-                    List<Integer> meepleSuccessors = stateSpace.meepleSucc(newState, tile, move.getCoords(), playerID == 1 ? 1 : 2);
-                    tile.placeMeeple(meepleSuccessors.get(stateSpace.getIndexOfBestMeeplePlacement(newState, tile, meepleSuccessors, newState.getPlayer(), random)), playerID);
-                }
-
-                newState.updateBoard(move.getCoords(), tile);
-                newState.checkForScoreAfterRound(false);
-                value = Math.max(value, minimax(newState, deck, depth+1, false, alpha, beta));
+                state.apply(move, drawnTile, chooseMeeplePlacement(state, drawnTile, move, playerID == 1 ? 1 : 2));
+                value = Math.max(value, minimax(state, deck, depth+1, false, alpha, beta));
+                state.undo();
                 if (value >= beta) {
                     break;
                 }
@@ -90,18 +81,9 @@ public class MinimaxPlayer extends Player {
         } else {
             int value = Integer.MAX_VALUE;
             for (Move move : moves) {
-                GameState newState = new GameState(state);
-                Tile tile = new Tile(drawnTile);
-                tile.rotateBy(move.getRotation());
-
-                if (random.nextFloat() < meeplePlacementProbability) {
-                    List<Integer> meepleSuccessors = stateSpace.meepleSucc(newState, tile, move.getCoords(), playerID == 1 ? 2 : 1);
-                    tile.placeMeeple(meepleSuccessors.get(stateSpace.getIndexOfBestMeeplePlacement(newState, tile, meepleSuccessors, newState.getPlayer(), random)), playerID == 1 ? 2 : 1);
-                }
-
-                newState.updateBoard(move.getCoords(), tile);
-                newState.checkForScoreAfterRound(false);
-                value = Math.min(value, minimax(newState, deck, depth+1, true, alpha, beta));
+                state.apply(move, drawnTile, chooseMeeplePlacement(state, drawnTile, move, playerID == 1 ? 2 : 1));
+                value = Math.min(value, minimax(state, deck, depth+1, true, alpha, beta));
+                state.undo();
                 if (value <= alpha) {
                     break;
                 }
@@ -111,13 +93,28 @@ public class MinimaxPlayer extends Player {
         }
     }
 
-    private int defaultPolicy(GameState originalState, List<Tile> originalDeck) {
-        GameState state = new GameState(originalState);
-        List<Tile> deck = new ArrayList<>(List.copyOf(originalDeck));
+    /**
+     * Decides randomly whether a meeple should be placed and if so, where the best place for it is.
+     * @return The point on which the meeple is placed or -1.
+     */
+    private int chooseMeeplePlacement(GameState state, Tile tile, Move move, int player) {
+        if (random.nextFloat() >= meeplePlacementProbability) {
+            return -1;
+        }
+
+        List<Integer> meepleSuccessors = stateSpace.meepleSucc(state, tile, move, player);
+
+        return meepleSuccessors.get(stateSpace.getIndexOfBestMeeplePlacement(state, move, tile, meepleSuccessors, state.getPlayer(), random));
+    }
+
+    private int defaultPolicy(GameState state, List<Tile> originalDeck) {
+        List<Tile> deck = new ArrayList<>(originalDeck);
+
+        // The playout is performed on the search state itself. Every move is undone once the payoff is known.
+        int numMoves = 0;
 
         while (deck.size() > 0) {
-            Tile drawnTile = Engine.drawTile(deck);
-            Tile tile = new Tile(drawnTile);
+            Tile tile = Engine.drawTile(deck);
 
             List<Move> actions = stateSpace.placementSucc(state, tile);
 
@@ -128,29 +125,24 @@ public class MinimaxPlayer extends Player {
             }
 
             Move action = actions.get(random.nextInt(actions.size()));
-            for (int i = 0; i < action.getRotation(); i++) {
-                tile.rotate();
-            }
+            int meeplePlacement = -1;
 
             if (random.nextFloat() < 0.5) {
-                List<Integer> legalMeeples = stateSpace.meepleSucc(state, tile, action.getCoords(), playerID);
-
-                if (!legalMeeples.isEmpty()) {
-                    int meeplePlacement = legalMeeples.get(random.nextInt(legalMeeples.size()));
-
-                    if (meeplePlacement > -1) {
-                        tile.placeMeeple(meeplePlacement, state.getPlayer());
-                    }
-                }
+                List<Integer> legalMeeples = stateSpace.meepleSucc(state, tile, action, playerID);
+                meeplePlacement = legalMeeples.get(random.nextInt(legalMeeples.size()));
             }
 
-            state.updateBoard(action.getCoords(), tile);
+            state.apply(action, tile, meeplePlacement);
+            numMoves++;
+        }
+
+        int payoff = state.getProjectedScore(playerID);
 
-            state.checkForScoreAfterRound(false);
+        for (int i = 0; i < numMoves; i++) {
+            state.undo();
         }
 
-        state.assignPointsAtEndOfGame();
-        return state.getScore()[playerID - 1];
+        return payoff;
     }
 
     @Override
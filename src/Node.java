@@ -42,6 +42,12 @@ public class Node {
      */
     private int meeplePlacement;
 
+    /**
+     *  The placements on the board of the state, shared by the siblings of a placement node since their states are
+     *  identical. null if the placements haven't been generated in advance.
+     */
+    private PlacementContext placementContext;
+
     public int id;
 
     /**
@@ -117,6 +123,14 @@ public class Node {
         return move.getCoords();
     }
 
+    public PlacementContext getPlacementContext() {
+        return placementContext;
+    }
+
+    public void setPlacementContext(PlacementContext placementContext) {
+        this.placementContext = placementContext;
+    }
+
     public Move getMove() {
         return move;
     }
@@ -0,0 +1,68 @@
+/**
+ * Encodes a move (the coordinates in the placement space, the rotation and the meeple placement) in a single int, such
+ * that moves can be generated into reusable int buffers instead of allocating a Move and Coordinates per move.
+ * <p>
+ * Bits 0-7 hold x, bits 8-15 hold y, bits 16-17 hold the rotation and bits 18-21 hold the meeple placement plus 1,
+ * such that a move without a meeple has 0 there.
+ */
+final class PackedMove {
+
+    /**
+     *  An upper bound on the number of placements of a tile: every tile has at most 2 more empty neighbours than it
+     *  takes up, so a board of MAX_TILES tiles has at most 2 * MAX_TILES + 2 cells on which a tile can be placed.
+     */
+    static final int MAX_MOVES = 4 * (2 * Board.MAX_TILES + 2);
+
+    /**
+     *  The number of meeple placements of a move, including the option not to place a meeple.
+     */
+    static final int MAX_MEEPLES = 14;
+
+    private PackedMove() {
+    }
+
+    static int encode(int x, int y, int rotation, int meeplePlacement) {
+        return x | (y << 8) | (rotation << 16) | ((meeplePlacement + 1) << 18);
+    }
+
+    static int encode(Move move, int meeplePlacement) {
+        return encode(move.getCoords().x, move.getCoords().y, move.getRotation(), meeplePlacement);
+    }
+
+    static int getX(int move) {
+        return move & 0xFF;
+    }
+
+    static int getY(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    static int getRotation(int move) {
+        return (move >>> 16) & 3;
+    }
+
+    /**
+     * @param move A packed move.
+     * @return The point on which a meeple is placed or -1 if no meeple is placed.
+     */
+    static int getMeeplePlacement(int move) {
+        return ((move >>> 18) & 0xF) - 1;
+    }
+
+    /**
+     * @param move A packed move.
+     * @param meeplePlacement The point on which a meeple is placed or -1 if no meeple is placed.
+     * @return The same move with the given meeple placement.
+     */
+    static int withMeeplePlacement(int move, int meeplePlacement) {
+        return (move & ~(0xF << 18)) | ((meeplePlacement + 1) << 18);
+    }
+
+    /**
+     * @param move A packed move.
+     * @return The move without its meeple placement as an object.
+     */
+    static Move toMove(int move) {
+        return new Move(new Coordinates(getX(move), getY(move)), getRotation(move));
+    }
+}
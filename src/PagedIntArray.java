@@ -0,0 +1,97 @@
+import java.util.Arrays;
+
+/**
+ * A growable int array which can be copied in time proportional to its number of pages rather than its number of
+ * entries. The entries are split into pages of fixed size. A copy shares all pages with the original and a page is
+ * only copied once either of the two writes to it (copy-on-write). Entries which have never been written have a
+ * default value.
+ */
+class PagedIntArray {
+
+    private static final int PAGE_BITS = 6;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final int defaultValue;
+
+    private int[][] pages;
+
+    /**
+     *  One bit per page, which is set if the page belongs to this array exclusively and can be written to directly.
+     */
+    private long[] ownedPages;
+
+    PagedIntArray(int defaultValue) {
+        this.defaultValue = defaultValue;
+        this.pages = new int[4][];
+        this.ownedPages = new long[1];
+    }
+
+    /**
+     * Copy constructor. The pages are shared between the copy and the original, which is why neither of them owns
+     * any page afterwards.
+     * @param array The array to be copied.
+     */
+    PagedIntArray(PagedIntArray array) {
+        this.defaultValue = array.defaultValue;
+        this.pages = array.pages.clone();
+        this.ownedPages = new long[array.ownedPages.length];
+        Arrays.fill(array.ownedPages, 0);
+    }
+
+    /**
+     * Turns the given array into a copy of this one without allocating a new array, such that the arrays of a state
+     * can be reused. As with the copy constructor, the pages are shared afterwards. Both arrays need to have the same
+     * default value.
+     * @param target The array to be overwritten.
+     */
+    void copyInto(PagedIntArray target) {
+        if (target.pages.length < pages.length) {
+            target.pages = new int[pages.length][];
+            target.ownedPages = new long[ownedPages.length];
+        } else {
+            Arrays.fill(target.pages, pages.length, target.pages.length, null);
+            Arrays.fill(target.ownedPages, 0);
+        }
+
+        System.arraycopy(pages, 0, target.pages, 0, pages.length);
+        Arrays.fill(ownedPages, 0);
+    }
+
+    int get(int index) {
+        int page = index >>> PAGE_BITS;
+
+        if (page >= pages.length || pages[page] == null) {
+            return defaultValue;
+        }
+
+        return pages[page][index & (PAGE_SIZE - 1)];
+    }
+
+    void set(int index, int value) {
+        int page = index >>> PAGE_BITS;
+
+        if (page >= pages.length) {
+            pages = Arrays.copyOf(pages, Math.max(pages.length * 2, page + 1));
+        }
+
+        if (page >= ownedPages.length * 64) {
+            ownedPages = Arrays.copyOf(ownedPages, pages.length / 64 + 1);
+        }
+
+        if ((ownedPages[page >>> 6] & (1L << page)) == 0) {
+            int[] newPage;
+
+            if (pages[page] == null) {
+                newPage = new int[PAGE_SIZE];
+                Arrays.fill(newPage, defaultValue);
+            } else {
+                newPage = pages[page].clone();
+            }
+
+            pages[page] = newPage;
+            ownedPages[page >>> 6] |= 1L << page;
+        }
+
+        pages[page][index & (PAGE_SIZE - 1)] = value;
+    }
+}
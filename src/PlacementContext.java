@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The information needed to generate the placements on a board, i.e., the cells of the frontier and their edge
+ * signatures. It doesn't depend on the tile which is placed next, so it's computed once per board and then answers
+ * for every tile type, e.g., for all chance outcomes (the remaining tile types) following a move in the MCTS tree.
+ * The state from which it was created mustn't be changed as long as the context is in use.
+ */
+class PlacementContext {
+
+    /**
+     *  The edge signatures of the cells of the frontier in row-major order.
+     */
+    private final int[] signatures;
+
+    /**
+     *  The same cells in the placement space used by moves.
+     */
+    private final Coordinates[] coordinates;
+
+    /**
+     *  One bit per tile type which is set if the type can be placed anywhere on the board.
+     */
+    private final int placeableTypes;
+
+    PlacementContext(GameState state) {
+        int numCells = 0;
+
+        for (int cell = state.getNextFrontierCell(0); cell != -1; cell = state.getNextFrontierCell(cell + 1)) {
+            numCells++;
+        }
+
+        signatures = new int[numCells];
+        coordinates = new Coordinates[numCells];
+
+        int i = 0;
+        int types = 0;
+
+        for (int cell = state.getNextFrontierCell(0); cell != -1; cell = state.getNextFrontierCell(cell + 1)) {
+            signatures[i] = state.getEdgeSignature(cell);
+            coordinates[i] = state.getPlacementCoordinates(cell);
+
+            for (int type = 0; type < TileType.NUM_TYPES; type++) {
+                if (TileType.get(type).getLegalRotations(signatures[i]) != 0) {
+                    types |= 1 << type;
+                }
+            }
+
+            i++;
+        }
+
+        placeableTypes = types;
+    }
+
+    /**
+     * @param tile The tile in question.
+     * @return True if there is at least one legal move for the tile.
+     */
+    boolean isPlaceable(Tile tile) {
+        return (placeableTypes & (1 << tile.getType())) != 0;
+    }
+
+    /**
+     * Generates the same moves in the same order as GameStateSpace.placementSucc() for the state of this context.
+     * @param tile The tile which should be placed.
+     * @return All legal moves of the tile.
+     */
+    List<Move> getMoves(Tile tile) {
+        List<Move> moves = new ArrayList<>();
+
+        if (!isPlaceable(tile)) {
+            return moves;
+        }
+
+        TileType tileType = tile.getTileType();
+
+        for (int i = 0; i < signatures.length; i++) {
+            // Rotations which result in the same tile as a previous one are skipped.
+            int legalRotations = tileType.getLegalRotations(signatures[i]) & tileType.getDistinctRotations();
+
+            // The rotation of a move is relative to the current rotation of the tile.
+            for (int rotation = 0; rotation < 4; rotation++) {
+                if ((legalRotations & (1 << ((tile.getRotation() + rotation) & 3))) != 0) {
+                    moves.add(new Move(coordinates[i], rotation));
+                }
+            }
+        }
+
+        return moves;
+    }
+}
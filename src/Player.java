@@ -1,3 +1,4 @@
+import java.util.ArrayList;
 import java.util.List;
 
 abstract class Player {
@@ -24,5 +25,30 @@ abstract class Player {
      */
     abstract Pair decideOnNextMove(GameState state, Tile tile, List<Tile> deck, List<Move> legalMoves) throws Exception;
 
+    /**
+     * Decides on a next move given all possible next moves as packed moves (see PackedMove). Players which don't
+     * work on packed moves are asked via decideOnNextMove().
+     * @param state The state for which the move should be executed.
+     * @param tile The drawn tile.
+     * @param deck The remaining deck.
+     * @param legalMoves A buffer of all possible moves, without meeple placements.
+     * @param numLegalMoves The number of moves in the buffer.
+     * @return The chosen move including the meeple placement as a packed move.
+     */
+    int decideOnNextPackedMove(GameState state, Tile tile, List<Tile> deck, int[] legalMoves, int numLegalMoves) throws Exception {
+        List<Move> moves = new ArrayList<>(numLegalMoves);
+
+        for (int i = 0; i < numLegalMoves; i++) {
+            moves.add(PackedMove.toMove(legalMoves[i]));
+        }
+
+        Pair choice = decideOnNextMove(state, tile, deck, moves);
+
+        // A meeple placement on a point which doesn't exist can't be encoded, which is why it's replaced by none.
+        int meeplePlacement = choice.getSecond() >= -1 && choice.getSecond() <= 12 ? choice.getSecond() : -1;
+
+        return PackedMove.withMeeplePlacement(legalMoves[choice.getFirst()], meeplePlacement);
+    }
+
     abstract String getTypeAsString();
 }
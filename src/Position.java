@@ -0,0 +1,300 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A game state together with the remaining deck, which can be written to and read from a human-readable text
+ * notation. This allows for suites of positions from any phase of the game which searches can start from directly,
+ * instead of playing a seeded game up to that point. A position looks as follows:
+ * <pre>
+ * # Anything after a '#' is a comment.
+ * turn 2
+ * score 4 0
+ * deck 8 7 14p 3 17
+ * tile 0 0 0 0
+ * tile 0 1 14p 1 meeple 7 1
+ * tile -1 0 8 3
+ * </pre>
+ * The turn is the ID of the player who places the next tile, the scores are those of player 1 and player 2 and the
+ * deck lists the remaining tiles in the order in which they are drawn. These have to be exactly the tiles of the
+ * standard deck (see Engine.getStandardDeck()) which aren't on the board, since the hash of a state relies on that. A
+ * tile is given by its type (see the constructor of Tile) followed by a 'p' if it has a pennant.
+ * <p>
+ * The tiles on the board are listed in the order in which they were placed, starting with the starting tile. Each
+ * tile consists of its row and column relative to the starting tile, where rows grow downwards and columns to the
+ * right, its type and its rotation (see Tile), optionally followed by the point of the rotated tile on which a meeple
+ * stands and the ID of its owner.
+ * <p>
+ * Only the meeples which are on the board are listed, so the state is rebuilt by placing the tiles with these
+ * meeples in the given order. The features are completed in the same order as in the original game and thereby in
+ * the same way, except that no meeples are returned, since the meeples of completed features aren't on the board
+ * anymore. The scores are set afterwards.
+ */
+class Position {
+
+    private final GameState state;
+    private final List<Tile> deck;
+
+    Position(GameState state, List<Tile> deck) {
+        this.state = state;
+        this.deck = deck;
+    }
+
+    GameState getState() {
+        return state;
+    }
+
+    List<Tile> getDeck() {
+        return deck;
+    }
+
+    /**
+     * @param state A game state.
+     * @param deck The tiles which are left in the deck in the order in which they are drawn.
+     * @return The position in text notation.
+     */
+    static String format(GameState state, List<Tile> deck) {
+        StringBuilder builder = new StringBuilder();
+        Board board = state.getBoard();
+
+        builder.append("turn ").append(state.getPlayer()).append('\n');
+        builder.append("score ").append(state.getScore()[0]).append(' ').append(state.getScore()[1]).append('\n');
+        builder.append("deck");
+
+        for (Tile tile : deck) {
+            builder.append(' ').append(formatTile(tile));
+        }
+
+        builder.append('\n');
+
+        for (int index = 0; index < board.getNumTiles(); index++) {
+            Tile tile = board.getPlacedTile(index);
+
+            builder.append("tile ").append(tile.getPosition() / Board.SIZE - Board.CENTRE)
+                    .append(' ').append(tile.getPosition() % Board.SIZE - Board.CENTRE)
+                    .append(' ').append(formatTile(tile))
+                    .append(' ').append(tile.getRotation());
+
+            if (tile.hasMeeple()) {
+                builder.append(" meeple ").append(tile.getMeepleSide()).append(' ').append(tile.getMeeplePlayer());
+            }
+
+            builder.append('\n');
+        }
+
+        return builder.toString();
+    }
+
+    private static String formatTile(Tile tile) {
+        return tile.hasPennant() ? tile.getType() + "p" : Integer.toString(tile.getType());
+    }
+
+    /**
+     * @param text A position in text notation.
+     * @return The position.
+     * @throws IllegalArgumentException If the text isn't a valid position, with the number of the offending line.
+     */
+    static Position parse(String text) {
+        GameState state = null;
+        List<Tile> deck = null;
+        int turn = -1;
+        int[] scores = null;
+
+        // The number of tiles of each type which are left, without and with pennant, see getIndex().
+        int[] tilesLeft = new int[2 * TileType.NUM_TYPES];
+
+        for (Tile tile : Engine.getStandardDeck()) {
+            tilesLeft[getIndex(tile)]++;
+        }
+
+        String[] lines = text.split("\n");
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+
+            if (line.indexOf('#') != -1) {
+                line = line.substring(0, line.indexOf('#'));
+            }
+
+            line = line.trim();
+
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            String[] tokens = line.split("\\s+");
+
+            try {
+                switch (tokens[0]) {
+                    case "turn": {
+                        expectTokens(tokens, 2);
+                        turn = Integer.parseInt(tokens[1]);
+                        break;
+                    }
+                    case "score": {
+                        expectTokens(tokens, 3);
+                        scores = new int[]{Integer.parseInt(tokens[1]), Integer.parseInt(tokens[2])};
+                        break;
+                    }
+                    case "deck": {
+                        deck = new ArrayList<>(tokens.length - 1);
+
+                        for (int j = 1; j < tokens.length; j++) {
+                            deck.add(parseTile(tokens[j]));
+                        }
+
+                        break;
+                    }
+                    case "tile": {
+                        if (tokens.length != 5 && tokens.length != 8) {
+                            throw new IllegalArgumentException("Expected a cell, a tile, a rotation and a meeple.");
+                        }
+
+                        if (tokens.length == 8 && !tokens[5].equals("meeple")) {
+                            throw new IllegalArgumentException("Expected 'meeple' instead of '" + tokens[5] + "'.");
+                        }
+
+                        int row = Board.CENTRE + Integer.parseInt(tokens[1]);
+                        int column = Board.CENTRE + Integer.parseInt(tokens[2]);
+                        Tile tile = parseTile(tokens[3]);
+                        tile.setRotation(parseInt(tokens[4], 0, 3));
+
+                        if (state == null) {
+                            if (row != Board.CENTRE || column != Board.CENTRE || tile.getType() != 0
+                                    || tile.hasPennant() || tile.getRotation() != 0 || tokens.length != 5) {
+                                throw new IllegalArgumentException("The first tile has to be the starting tile.");
+                            }
+
+                            state = new GameState();
+                            break;
+                        }
+
+                        if (state.getDeckSize() == 0) {
+                            throw new IllegalArgumentException("There are more tiles than the deck holds.");
+                        }
+
+                        if (tilesLeft[getIndex(tile)] == 0) {
+                            throw new IllegalArgumentException("There is no tile " + formatTile(tile) + " left.");
+                        }
+
+                        tilesLeft[getIndex(tile)]--;
+
+                        checkPlacement(state, row, column, tile);
+
+                        if (tokens.length == 8) {
+                            int point = parseInt(tokens[6], 0, 12);
+                            int player = parseInt(tokens[7], 1, 2);
+
+                            if (tile.getPoint(point) == 3) {
+                                throw new IllegalArgumentException("A meeple can't be placed on an intersection.");
+                            }
+
+                            if (state.getNumMeeples(player) == 0) {
+                                throw new IllegalArgumentException("Player " + player + " has no meeples left.");
+                            }
+
+                            state.placeMeeple(point, player, tile);
+                        }
+
+                        Board board = state.getBoard();
+                        state.updateBoard(row - board.getMinRow() + 1, column - board.getMinColumn() + 1, tile);
+                        state.checkForScoreAfterRound();
+                        break;
+                    }
+                    default: {
+                        throw new IllegalArgumentException("Unknown keyword '" + tokens[0] + "'.");
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+
+        if (state == null || deck == null || turn == -1 || scores == null) {
+            throw new IllegalArgumentException("A position needs a turn, a score, a deck and the starting tile.");
+        }
+
+        if (deck.size() != state.getDeckSize()) {
+            throw new IllegalArgumentException("The deck has " + deck.size() + " tiles, but " + state.getDeckSize()
+                    + " tiles are left after the tiles on the board.");
+        }
+
+        for (Tile tile : deck) {
+            tilesLeft[getIndex(tile)]--;
+        }
+
+        for (int index = 0; index < tilesLeft.length; index++) {
+            if (tilesLeft[index] != 0) {
+                String tile = (index / 2) + (index % 2 == 1 ? "p" : "");
+
+                throw new IllegalArgumentException("The deck has " + Math.abs(tilesLeft[index])
+                        + (tilesLeft[index] < 0 ? " too many" : " too few") + " tiles " + tile + ".");
+            }
+        }
+
+        if (turn != state.getPlayer()) {
+            throw new IllegalArgumentException("It's player " + state.getPlayer() + "'s turn.");
+        }
+
+        state.setScore(1, scores[0]);
+        state.setScore(2, scores[1]);
+
+        return new Position(state, deck);
+    }
+
+    /**
+     * Checks whether a tile can be placed onto a cell, i.e., whether the cell is empty, has a neighbour and all
+     * neighbours match the edges of the tile in its rotation.
+     * @throws IllegalArgumentException If the tile can't be placed onto the cell.
+     */
+    private static void checkPlacement(GameState state, int row, int column, Tile tile) {
+        Board board = state.getBoard();
+
+        if (row < 1 || row >= Board.SIZE - 1 || column < 1 || column >= Board.SIZE - 1) {
+            throw new IllegalArgumentException("The cell is outside the board.");
+        }
+
+        if (board.getTile(row, column) != null) {
+            throw new IllegalArgumentException("The cell is taken already.");
+        }
+
+        int signature = board.getEdgeSignature(row, column);
+
+        if (signature == TileType.getSignature(TileType.OPEN, TileType.OPEN, TileType.OPEN, TileType.OPEN)) {
+            throw new IllegalArgumentException("The cell has no neighbour.");
+        }
+
+        if ((tile.getTileType().getLegalRotations(signature) & (1 << tile.getRotation())) == 0) {
+            throw new IllegalArgumentException("The tile doesn't fit onto the cell.");
+        }
+    }
+
+    /**
+     * @return The index of the tile's type and pennant in the tile counts of a deck.
+     */
+    private static int getIndex(Tile tile) {
+        return 2 * tile.getType() + (tile.hasPennant() ? 1 : 0);
+    }
+
+    private static Tile parseTile(String token) {
+        boolean pennant = token.endsWith("p");
+        int type = parseInt(pennant ? token.substring(0, token.length() - 1) : token, 0, TileType.NUM_TYPES - 1);
+
+        return new Tile(type, pennant);
+    }
+
+    private static int parseInt(String token, int min, int max) {
+        int value = Integer.parseInt(token);
+
+        if (value < min || value > max) {
+            throw new IllegalArgumentException(token + " isn't in {" + min + ", ..., " + max + "}.");
+        }
+
+        return value;
+    }
+
+    private static void expectTokens(String[] tokens, int count) {
+        if (tokens.length != count) {
+            throw new IllegalArgumentException("Expected " + (count - 1) + " values after '" + tokens[0] + "'.");
+        }
+    }
+}
@@ -26,6 +26,11 @@ public class RandomPlayer extends Player {
         return new Pair(random.nextInt(legalMoves.size()), random.nextInt(13));
     }
 
+    @Override
+    int decideOnNextPackedMove(GameState state, Tile tile, List<Tile> deck, int[] legalMoves, int numLegalMoves) {
+        return PackedMove.withMeeplePlacement(legalMoves[random.nextInt(numLegalMoves)], random.nextInt(13));
+    }
+
     public String getTypeAsString() {
         return "Random Player";
     }
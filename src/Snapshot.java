@@ -0,0 +1,298 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compact binary encoding of a game state and the remaining deck, e.g. to pass positions between processes, to
+ * write the records of self-play games or to load a corpus of benchmark positions. A snapshot is read in place: the
+ * getters read straight from the buffer, so looking at a position doesn't require building a GameState, which is
+ * only done by toGameState().
+ * <p>
+ * All values are big-endian. The layout is as follows, where the header and the tiles have fixed offsets:
+ * <pre>
+ *  0  int    MAGIC
+ *  4  byte   VERSION
+ *  5  byte   number of tiles on the board
+ *  6  byte   deck size
+ *  7  byte   meeples left of player 1 and player 2
+ *  9  int    score of player 1 and player 2
+ * 17  long   Zobrist hash
+ * 25  byte   number of tiles in the deck for each type, without and with pennant (2 * TileType.NUM_TYPES)
+ * 63  tiles  TILE_BYTES per tile in placement order
+ *     areas  the area table, see AreaTable.writeTo()
+ * </pre>
+ * A tile consists of its absolute row and column, its type, its rotation (bits 0-1) and pennant (bit 2), its meeple
+ * (the point plus 1 in bits 0-3 and the player in bits 4-5, 0 if there's none) and the areas of its points 0-12 in
+ * its rotation as shorts.
+ * <p>
+ * Since the area table is stored as it is rather than rebuilt from the tiles, reading a snapshot restores exactly the
+ * state that was written: writing the restored state results in the same bytes, and it has the same hash and the same
+ * future as the original. The order of the deck isn't stored, only its composition.
+ */
+class Snapshot {
+
+    static final int MAGIC = 0x43415243;
+    static final int VERSION = 1;
+
+    private static final int NUM_TILES = 5;
+    private static final int DECK_SIZE = 6;
+    private static final int NUM_MEEPLES = 7;
+    private static final int SCORES = 9;
+    private static final int HASH = 17;
+    private static final int DECK = 25;
+    private static final int TILES = DECK + 2 * TileType.NUM_TYPES;
+
+    static final int TILE_BYTES = 5 + 13 * 2;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Wraps the snapshot which starts at the position of the buffer. The bytes aren't copied, so the buffer mustn't
+     * be modified as long as the snapshot is in use.
+     * @param buffer The buffer containing the snapshot.
+     */
+    Snapshot(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+
+        if (this.buffer.remaining() < TILES || this.buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a snapshot.");
+        }
+
+        if (this.buffer.get(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version " + this.buffer.get(4) + ".");
+        }
+
+        if (getNumTiles() < 1 || getNumTiles() > Board.MAX_TILES
+                || this.buffer.remaining() < TILES + getNumTiles() * TILE_BYTES) {
+            throw new IllegalArgumentException("Truncated snapshot.");
+        }
+    }
+
+    /**
+     * @param state A game state.
+     * @param deck The tiles which are left in the deck.
+     * @return A new buffer containing the snapshot of the state, ready to be read.
+     */
+    static ByteBuffer encode(GameState state, List<Tile> deck) {
+        ByteBuffer buffer = ByteBuffer.allocate(getEncodedSize(state));
+
+        write(state, deck, buffer);
+        buffer.flip();
+
+        return buffer;
+    }
+
+    /**
+     * @param state A game state.
+     * @return The number of bytes of the snapshot of the state.
+     */
+    static int getEncodedSize(GameState state) {
+        return TILES + state.getBoard().getNumTiles() * TILE_BYTES + state.getAreas().getEncodedSize();
+    }
+
+    /**
+     * Writes the snapshot of a state at the position of the buffer and advances the position past it, such that
+     * several snapshots can be written one after the other.
+     * @param state A game state.
+     * @param deck The tiles which are left in the deck.
+     * @param buffer The buffer, which must have getEncodedSize(state) bytes remaining.
+     */
+    static void write(GameState state, List<Tile> deck, ByteBuffer buffer) {
+        Board board = state.getBoard();
+
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) board.getNumTiles());
+        buffer.put((byte) state.getDeckSize());
+        buffer.put((byte) state.getNumMeeples(1));
+        buffer.put((byte) state.getNumMeeples(2));
+        buffer.putInt(state.getScore()[0]);
+        buffer.putInt(state.getScore()[1]);
+        buffer.putLong(state.getHash());
+
+        byte[] deckCounts = new byte[2 * TileType.NUM_TYPES];
+
+        for (Tile tile : deck) {
+            deckCounts[2 * tile.getType() + (tile.hasPennant() ? 1 : 0)]++;
+        }
+
+        buffer.put(deckCounts);
+
+        for (int index = 0; index < board.getNumTiles(); index++) {
+            Tile tile = board.getPlacedTile(index);
+
+            buffer.put((byte) (tile.getPosition() / Board.SIZE));
+            buffer.put((byte) (tile.getPosition() % Board.SIZE));
+            buffer.put((byte) tile.getType());
+            buffer.put((byte) (tile.getRotation() | (tile.hasPennant() ? 4 : 0)));
+            buffer.put((byte) (tile.hasMeeple() ? (tile.getMeepleSide() + 1) | (tile.getMeeplePlayer() << 4) : 0));
+
+            for (int point = 0; point <= 12; point++) {
+                buffer.putShort((short) tile.getArea(point));
+            }
+        }
+
+        state.getAreas().writeTo(buffer);
+    }
+
+    /**
+     * @return The number of bytes of this snapshot, i.e., the offset at which the next snapshot in the buffer starts.
+     */
+    int getSize() {
+        int areas = TILES + getNumTiles() * TILE_BYTES;
+
+        return areas + AreaTable.getEncodedSize(buffer.getShort(areas), buffer.getShort(areas + 2));
+    }
+
+    int getNumTiles() {
+        return buffer.get(NUM_TILES);
+    }
+
+    int getDeckSize() {
+        return buffer.get(DECK_SIZE);
+    }
+
+    /**
+     * @return The ID of the player whose turn it is, see GameState.getPlayer().
+     */
+    int getPlayer() {
+        return getDeckSize() % 2 == 1 ? 1 : 2;
+    }
+
+    int getNumMeeples(int player) {
+        return buffer.get(NUM_MEEPLES + player - 1);
+    }
+
+    int getScore(int player) {
+        return buffer.getInt(SCORES + 4 * (player - 1));
+    }
+
+    long getHash() {
+        return buffer.getLong(HASH);
+    }
+
+    /**
+     * @param type The type of the tiles.
+     * @param pennant True to count the tiles with a pennant, false for those without.
+     * @return The number of such tiles in the deck.
+     */
+    int getDeckCount(int type, boolean pennant) {
+        return buffer.get(DECK + 2 * type + (pennant ? 1 : 0));
+    }
+
+    /**
+     * @param index The index of the tile in placement order.
+     * @return The absolute row of the tile.
+     */
+    int getRow(int index) {
+        return buffer.get(getTileOffset(index)) & 0xFF;
+    }
+
+    /**
+     * @param index The index of the tile in placement order.
+     * @return The absolute column of the tile.
+     */
+    int getColumn(int index) {
+        return buffer.get(getTileOffset(index) + 1) & 0xFF;
+    }
+
+    int getType(int index) {
+        return buffer.get(getTileOffset(index) + 2);
+    }
+
+    int getRotation(int index) {
+        return buffer.get(getTileOffset(index) + 3) & 3;
+    }
+
+    boolean hasPennant(int index) {
+        return (buffer.get(getTileOffset(index) + 3) & 4) != 0;
+    }
+
+    /**
+     * @param index The index of the tile in placement order.
+     * @return The point of the rotated tile on which the meeple stands or -1 if there's no meeple on the tile.
+     */
+    int getMeepleSide(int index) {
+        return (buffer.get(getTileOffset(index) + 4) & 0xF) - 1;
+    }
+
+    /**
+     * @param index The index of the tile in placement order.
+     * @return The ID of the player whom the meeple belongs to or -1 if there's no meeple on the tile.
+     */
+    int getMeeplePlayer(int index) {
+        int meeple = buffer.get(getTileOffset(index) + 4);
+
+        return meeple == 0 ? -1 : meeple >>> 4;
+    }
+
+    /**
+     * @param index The index of the tile in placement order.
+     * @param point The point of the rotated tile in {0, ..., 12}.
+     * @return The area which the point was assigned when the tile was placed.
+     */
+    int getArea(int index, int point) {
+        return buffer.getShort(getTileOffset(index) + 5 + 2 * point);
+    }
+
+    private int getTileOffset(int index) {
+        return TILES + index * TILE_BYTES;
+    }
+
+    /**
+     * Builds the state of this snapshot. The tiles are placed in their original order, so that their placement indices
+     * match those in the area table, and the hash is recomputed from them and compared to the stored one.
+     * @return A new state which is equal to the state the snapshot was written from.
+     */
+    GameState toGameState() {
+        Board board = new Board();
+
+        for (int index = 0; index < getNumTiles(); index++) {
+            Tile tile = new Tile(getType(index), hasPennant(index));
+            tile.setRotation(getRotation(index));
+
+            for (int point = 0; point <= 12; point++) {
+                tile.setArea(point, getArea(index, point));
+            }
+
+            tile.placeMeeple(getMeepleSide(index), getMeeplePlayer(index));
+
+            if (getRow(index) >= Board.SIZE || getColumn(index) >= Board.SIZE
+                    || board.getTile(getRow(index), getColumn(index)) != null) {
+                throw new IllegalArgumentException("Invalid cell in the snapshot.");
+            }
+
+            board.place(getRow(index), getColumn(index), tile);
+        }
+
+        ByteBuffer areas = buffer.duplicate();
+        areas.position(getTileOffset(getNumTiles()));
+
+        GameState state = new GameState(board, new AreaTable(areas), new int[]{getScore(1), getScore(2)},
+                new int[]{getNumMeeples(1), getNumMeeples(2)}, getDeckSize());
+
+        if (state.getHash() != getHash()) {
+            throw new IllegalArgumentException("The snapshot is corrupt.");
+        }
+
+        return state;
+    }
+
+    /**
+     * @return New tiles in the composition of the deck of this snapshot, ordered by type. They should be shuffled
+     * before they are drawn from.
+     */
+    List<Tile> toDeck() {
+        List<Tile> deck = new ArrayList<>();
+
+        for (int type = 0; type < TileType.NUM_TYPES; type++) {
+            for (int pennant = 0; pennant < 2; pennant++) {
+                for (int i = 0; i < getDeckCount(type, pennant == 1); i++) {
+                    deck.add(new Tile(type, pennant == 1));
+                }
+            }
+        }
+
+        return deck;
+    }
+}
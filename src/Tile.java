@@ -1,46 +1,41 @@
 import java.util.Arrays;
 
+/**
+ * A tile of the deck or on the board. The points and the middle of the tile are defined by its type, which is shared
+ * between all tiles of that type (see TileType). What belongs to the individual tile is kept here: its rotation, a
+ * possible meeple, the areas of its points once it has been placed and its position on the board. The areas and the
+ * meeple are stored relative to the unrotated tile, such that rotating a tile only changes its rotation.
+ */
 public class Tile {
     private final boolean pennant;
 
-    /**
-     * Starting from bottom right.
-     * 0: grass
-     * 1: city
-     * 2: road
-     */
-    private int[] points;
+    private final TileType tileType;
 
     /**
-     * To which connected areas to the points belong to?
+     * To which connected areas to the points belong to? Indexed by the points of the unrotated tile and only allocated
+     * once an area is assigned, since tiles in the deck don't have any.
      */
     private int[] areas;
 
-    /**
-     * Describes a possible meeple on the tile. Index 0 denotes the side on which the meeple was placed and index 1
-     * denotes the ID of the player whom the meeple belongs to. If there's no meeple on the tile, then both values
-     * are -1.
-     */
-    private int[] meeple;
-
-    private final int type;
+    private int middleArea;
 
     /**
-     * 0: grass
-     * 1: city
-     * 2: road
-     * 3: intersection
-     * 4: monastery
+     * Describes a possible meeple on the tile: the point (of the unrotated tile) on which the meeple was placed and
+     * the ID of the player whom the meeple belongs to. If there's no meeple on the tile, then both values are -1.
      */
-    private int middle;
-
-    private int middleArea;
+    private int meepleSide;
+    private int meeplePlayer;
 
     /**
      *  The rotation in {0, 1, 2, 3} denoting the factor of 90 degrees this was rotated from its initialised state.
      */
     private int rotation;
 
+    /**
+     *  The cell (row * Board.SIZE + column) on which the tile has been placed or -1 if it hasn't been placed.
+     */
+    private int position;
+
     /**
      * The possible types are the following:
      * 0: City and straight road (4, including starting tile)
@@ -65,114 +60,14 @@ public class Tile {
      */
     public Tile(int type, boolean pennant) {
         this.pennant = pennant;
-        this.type = type;
+        this.tileType = TileType.get(type);
         this.rotation = 0;
+        this.position = -1;
 
-        areas = new int[]{-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1};
-
-        meeple = new int[]{-1, -1};
+        middleArea = -1;
 
-        switch (type) {
-            case 0: {
-                points = new int[]{0, 0, 0, 0, 2, 0, 1, 1, 1, 0, 2, 0};
-                middle = 2;
-                break;
-            }
-            case 1: {
-                points = new int[]{0, 2, 0, 0, 0, 0, 1, 1, 1, 0, 2, 0};
-                middle = 2;
-                break;
-            }
-            case 2: {
-                points = new int[]{0, 2, 0, 0, 2, 0, 1, 1, 1, 0, 0, 0};
-                middle = 2;
-                break;
-            }
-            case 3: {
-                points = new int[]{0, 2, 0, 0, 2, 0, 1, 1, 1, 0, 2, 0};
-                middle = 3;
-                break;
-            }
-            case 4: {
-                points = new int[]{0, 0, 0, 0, 0, 0, 1, 1, 1, 0, 0, 0};
-                middle = 0;
-                break;
-            }
-            case 5: {
-                points = new int[]{1, 1, 1, 0, 0, 0, 1, 1, 1, 0, 0, 0};
-                middle = 0;
-                break;
-            }
-            case 6: {
-                points = new int[]{0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 1, 1};
-                middle = 0;
-                break;
-            }
-            case 7: {
-                points = new int[]{0, 0, 0, 0, 2, 0, 0, 0, 0, 0, 2, 0};
-                middle = 2;
-                break;
-            }
-            case 8: {
-                points = new int[]{0, 2, 0, 0, 0, 0, 0, 0, 0, 0, 2, 0};
-                middle = 2;
-                break;
-            }
-            case 9: {
-                points = new int[]{0, 2, 0, 0, 2, 0, 0, 0, 0, 0, 2, 0};
-                middle = 3;
-                break;
-            }
-            case 10: {
-                points = new int[]{0, 2, 0, 0, 2, 0, 0, 2, 0, 0, 2, 0};
-                middle = 3;
-                break;
-            }
-            case 11: {
-                points = new int[]{0, 2, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
-                middle = 4;
-                break;
-            }
-            case 12: {
-                points = new int[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
-                middle = 4;
-                break;
-            }
-            case 13: {
-                points = new int[]{0, 0, 0, 1, 1, 1, 0, 0, 0, 1, 1, 1};
-                middle = 1;
-                break;
-            }
-            case 14: {
-                points = new int[]{0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 1, 1};
-                middle = 1;
-                break;
-            }
-            case 15: {
-                points = new int[]{0, 2, 0, 0, 2, 0, 1, 1, 1, 1, 1, 1};
-                middle = 1;
-                break;
-            }
-            case 16: {
-                points = new int[]{0, 2, 0, 1, 1, 1, 1, 1, 1, 1, 1, 1};
-                middle = 1;
-                break;
-            }
-            case 17: {
-                points = new int[]{0, 0, 0, 1, 1, 1, 1, 1, 1, 1, 1, 1};
-                middle = 1;
-                break;
-            }
-            case 18: {
-                points = new int[]{1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1};
-                middle = 1;
-                break;
-            }
-            default: {
-                Engine.printError("Invalid tile added to deck.");
-                System.exit(1);
-            }
-        }
+        meepleSide = -1;
+        meeplePlayer = -1;
     }
 
     /**
@@ -180,23 +75,29 @@ public class Tile {
      * @param tile The tile for which a deep copy should be created.
      */
     public Tile(Tile tile) {
-        this.points = Arrays.copyOf(tile.getPoints(), 12);
-        this.areas = Arrays.copyOf(tile.getAreas(), 12);
-        this.meeple = Arrays.copyOf(tile.getMeeple(), 2);
-        this.middle = tile.getMiddle();
-        this.middleArea = tile.getMiddleArea();
-        this.pennant = tile.hasPennant();
+        this.tileType = tile.tileType;
+        this.areas = tile.areas == null ? null : Arrays.copyOf(tile.areas, 12);
+        this.meepleSide = tile.meepleSide;
+        this.meeplePlayer = tile.meeplePlayer;
+        this.middleArea = tile.middleArea;
+        this.pennant = tile.pennant;
         this.rotation = tile.rotation;
-        this.type = tile.type;
+        this.position = tile.position;
     }
 
     /**
      * @param factor The factor of 90 degrees which the tile should be rotated by.
      */
     public void rotateBy(int factor) {
-        for (int i = 0; i < factor; i++) {
-            rotate();
-        }
+        rotation = (rotation + factor) & 3;
+    }
+
+    /**
+     * @param rotation The rotation in {0, 1, 2, 3} which the tile should have after the call, regardless of its
+     *                 current rotation.
+     */
+    public void setRotation(int rotation) {
+        this.rotation = rotation;
     }
 
     /**
@@ -224,11 +125,11 @@ public class Tile {
 
         boolean road = false;
         char c = '£';
-        if(points[7] == 0) {
+        if(getPoint(7) == 0) {
             c = '.';
-        } else if (points[7] == 1) {
+        } else if (getPoint(7) == 1) {
             c = '#';
-        } else if (points[7] == 2) {
+        } else if (getPoint(7) == 2) {
             output[0][2] = '|';
             output[1][2] = '|';
             road = true;
@@ -245,11 +146,11 @@ public class Tile {
         }
 
         road = false;
-        if(points[1] == 0) {
+        if(getPoint(1) == 0) {
             c = '.';
-        } else if (points[1] == 1) {
+        } else if (getPoint(1) == 1) {
             c = '#';
-        } else if (points[1] == 2) {
+        } else if (getPoint(1) == 2) {
             output[4][2] = '|';
             output[3][2] = '|';
             road = true;
@@ -267,11 +168,11 @@ public class Tile {
 
         // Then the edges on the sides
         road = false;
-        if(points[4] == 0) {
+        if(getPoint(4) == 0) {
             c = '.';
-        } else if (points[4] == 1) {
+        } else if (getPoint(4) == 1) {
             c = '#';
-        } else if (points[4] == 2) {
+        } else if (getPoint(4) == 2) {
             output[2][4] = '-';
             output[2][3] = '-';
             road = true;
@@ -290,11 +191,11 @@ public class Tile {
         }
 
         road = false;
-        if(points[10] == 0) {
+        if(getPoint(10) == 0) {
             c = '.';
-        } else if (points[10] == 1) {
+        } else if (getPoint(10) == 1) {
             c = '#';
-        } else if (points[10] == 2) {
+        } else if (getPoint(10) == 2) {
             output[2][0] = '-';
             output[2][1] = '-';
             road = true;
@@ -312,6 +213,8 @@ public class Tile {
             output[2][2] = c;
         }
 
+        int middle = getMiddle();
+
         if (middle == 0) {
             c = '.';
         } else if (middle == 1) {
@@ -338,34 +241,35 @@ public class Tile {
 
         output[2][2] = c;
 
-        if (meeple[1] != -1) {
-            char digit = Character.forDigit(meeple[1], 10);
+        if (meeplePlayer != -1) {
+            char digit = Character.forDigit(meeplePlayer, 10);
+            int side = getMeepleSide();
 
-            if (meeple[0] == 0) {
+            if (side == 0) {
                 output[4][1] = digit;
-            } else if (meeple[0] == 1) {
+            } else if (side == 1) {
                 output[4][2] = digit;
-            } else if (meeple[0] == 2) {
+            } else if (side == 2) {
                 output[4][3] = digit;
-            } else if (meeple[0] == 3) {
+            } else if (side == 3) {
                 output[3][4] = digit;
-            } else if (meeple[0] == 4) {
+            } else if (side == 4) {
                 output[2][4] = digit;
-            } else if (meeple[0] == 5) {
+            } else if (side == 5) {
                 output[1][4] = digit;
-            } else if (meeple[0] == 6) {
+            } else if (side == 6) {
                 output[0][3] = digit;
-            } else if (meeple[0] == 7) {
+            } else if (side == 7) {
                 output[0][2] = digit;
-            } else if (meeple[0] == 8) {
+            } else if (side == 8) {
                 output[0][1] = digit;
-            } else if (meeple[0] == 9) {
+            } else if (side == 9) {
                 output[1][0] = digit;
-            } else if (meeple[0] == 10) {
+            } else if (side == 10) {
                 output[2][0] = digit;
-            } else if (meeple[0] == 11) {
+            } else if (side == 11) {
                 output[3][0] = digit;
-            } else if (meeple[0] == 12) {
+            } else if (side == 12) {
                 output[2][2] = digit;
             }
         }
@@ -400,85 +304,55 @@ public class Tile {
      *  Rotates the tile 90 degrees counterclockwise.
      */
     public void rotate() {
+        rotateBy(1);
+    }
 
-        if (rotation == 3) {
-            rotation = 0;
-        } else {
-            rotation++;
-        }
-
-        int temp1;
-        int temp2;
-
-        if (meeple [0] >= 0 && meeple[0] < 3) {
-            meeple[0] += 1;
-        } else if (meeple[0] == 3) {
-            meeple[0] = 0;
-        }
-
-        // Now we rotate the points.
-
-        int temp3;
-
-        temp1 = points[9];
-        temp2 = points[10];
-        temp3 = points[11];
-
-        for (int i = 8; i >= 2; i -= 3) {
-            points[i+3] = points[i];
-            points[i+2] = points[i-1];
-            points[i+1] = points[i-2];
-        }
-
-        points[0] = temp1;
-        points[1] = temp2;
-        points[2] = temp3;
-
-        // Now we rotate the areas.
-
-        int temp4;
-        int temp5;
-        int temp6;
-
-        temp4 = areas[9];
-        temp5 = areas[10];
-        temp6 = areas[11];
-
-        for (int i = 8; i >= 2; i -= 3) {
-            areas[i+3] = areas[i];
-            areas[i+2] = areas[i-1];
-            areas[i+1] = areas[i-2];
-        }
-
-        areas[0] = temp4;
-        areas[1] = temp5;
-        areas[2] = temp6;
+    /**
+     * @param point A point of the tile in its current rotation.
+     * @return The corresponding point of the unrotated tile.
+     */
+    private int toUnrotated(int point) {
+        return point == 12 ? 12 : (point + 12 - 3 * rotation) % 12;
     }
 
     public int getMiddle() {
-        return middle;
+        return tileType.getMiddle();
     }
 
     public void placeMeeple(int side, int playerID) {
         if (side != -1) {
-            meeple = new int[]{side, playerID};
+            meepleSide = toUnrotated(side);
+            meeplePlayer = playerID;
         }
     }
 
-    public int[] getMeeple() {
-        return meeple;
+    /**
+     * @return The point on which the meeple was placed or -1 if there's no meeple on the tile.
+     */
+    public int getMeepleSide() {
+        return meepleSide == -1 || meepleSide == 12 ? meepleSide : (meepleSide + 3 * rotation) % 12;
     }
 
-    public int[] getAreas() {
-        return areas;
+    /**
+     * @return The ID of the player whom the meeple belongs to or -1 if there's no meeple on the tile.
+     */
+    public int getMeeplePlayer() {
+        return meeplePlayer;
     }
 
     public int getPoint(int point) {
         if (point == 12) {
-            return middle;
+            return getMiddle();
         }
 
-        return points[point];
+        return TileType.getPoint(getPackedPoints(), point);
+    }
+
+    /**
+     * @return The points of the tile in its current rotation, packed as described in TileType.
+     */
+    public int getPackedPoints() {
+        return tileType.getPackedPoints(rotation);
     }
 
     public int getArea(int index) {
@@ -486,7 +360,7 @@ public class Tile {
             return middleArea;
         }
 
-        return areas[index];
+        return areas == null ? -1 : areas[toUnrotated(index)];
     }
 
     public void setArea(int point, int area) {
@@ -494,17 +368,18 @@ public class Tile {
         if (point == 12) {
             middleArea = area;
         } else {
-            areas[point] = area;
+            if (areas == null) {
+                areas = new int[12];
+                Arrays.fill(areas, -1);
+            }
+
+            areas[toUnrotated(point)] = area;
         }
     }
 
     public void resetAreas() {
         middleArea = -1;
-        areas = new int[]{-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1};
-    }
-
-    public int[] getPoints() {
-        return points;
+        areas = null;
     }
 
     public int getMiddleArea() {
@@ -520,18 +395,31 @@ public class Tile {
     }
 
     public boolean hasMeeple() {
-        return meeple[0] != -1;
+        return meepleSide != -1;
     }
 
     public int getType() {
-        return type;
+        return tileType.getType();
+    }
+
+    TileType getTileType() {
+        return tileType;
     }
 
     public void removeMeeple() {
-        meeple = new int[]{-1, -1};
+        meepleSide = -1;
+        meeplePlayer = -1;
     }
 
     public int getRotation() {
         return rotation;
     }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public void setPosition(int position) {
+        this.position = position;
+    }
 }
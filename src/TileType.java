@@ -0,0 +1,361 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The immutable part of a tile, which is the same for all tiles of a type and is therefore shared between them
+ * (flyweight). The 12 points along the edge of the tile are packed into the lower 24 bits of an int, with 2 bits per
+ * point and point i at bits 2i and 2i + 1. Since a rotation by 90 degrees moves every point by 3 positions, the points
+ * of a rotated tile are a bit-rotation of those of the unrotated tile, which is why they are precomputed for all four
+ * rotations.
+ * <p>
+ * The connectivity within a tile only depends on its type and rotation as well, so the segments of each type are also
+ * precomputed: the sets of points which belong to the same road, city, field or monastery on the tile. A segment is a
+ * bitmask of its points, where bit 12 denotes the middle of the tile.
+ * <p>
+ * Finally, whether a tile fits onto an empty cell only depends on the edges of the neighbours of the cell. These are
+ * described by an edge signature with 2 bits per side of the cell (see getSignature()), and for each of the 256
+ * signatures the rotations in which the type fits are precomputed.
+ * <p>
+ * Some types are symmetric, e.g., a crossroads looks the same in every rotation and a straight road in two of them.
+ * Rotations with the same points have the same segments as well, so they result in the same game and only one of
+ * them needs to be considered when generating moves (see getCanonicalRotation()).
+ */
+class TileType {
+
+    /**
+     * The points of each type, starting from bottom right.
+     * 0: grass
+     * 1: city
+     * 2: road
+     */
+    private static final int[][] POINTS = {
+            {0, 0, 0, 0, 2, 0, 1, 1, 1, 0, 2, 0},
+            {0, 2, 0, 0, 0, 0, 1, 1, 1, 0, 2, 0},
+            {0, 2, 0, 0, 2, 0, 1, 1, 1, 0, 0, 0},
+            {0, 2, 0, 0, 2, 0, 1, 1, 1, 0, 2, 0},
+            {0, 0, 0, 0, 0, 0, 1, 1, 1, 0, 0, 0},
+            {1, 1, 1, 0, 0, 0, 1, 1, 1, 0, 0, 0},
+            {0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 1, 1},
+            {0, 0, 0, 0, 2, 0, 0, 0, 0, 0, 2, 0},
+            {0, 2, 0, 0, 0, 0, 0, 0, 0, 0, 2, 0},
+            {0, 2, 0, 0, 2, 0, 0, 0, 0, 0, 2, 0},
+            {0, 2, 0, 0, 2, 0, 0, 2, 0, 0, 2, 0},
+            {0, 2, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0},
+            {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0},
+            {0, 0, 0, 1, 1, 1, 0, 0, 0, 1, 1, 1},
+            {0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 1, 1},
+            {0, 2, 0, 0, 2, 0, 1, 1, 1, 1, 1, 1},
+            {0, 2, 0, 1, 1, 1, 1, 1, 1, 1, 1, 1},
+            {0, 0, 0, 1, 1, 1, 1, 1, 1, 1, 1, 1},
+            {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1}
+    };
+
+    /**
+     * The middle of each type.
+     * 0: grass
+     * 1: city
+     * 2: road
+     * 3: intersection
+     * 4: monastery
+     */
+    private static final int[] MIDDLES = {2, 2, 2, 3, 0, 0, 0, 2, 2, 3, 3, 4, 4, 1, 1, 1, 1, 1, 1};
+
+    static final int NUM_TYPES = POINTS.length;
+
+    private static final TileType[] TYPES = new TileType[NUM_TYPES];
+
+    static {
+        for (int type = 0; type < TYPES.length; type++) {
+            TYPES[type] = new TileType(type);
+        }
+    }
+
+    private final int type;
+    private final int middle;
+
+    /**
+     *  The packed points for each rotation in {0, 1, 2, 3}.
+     */
+    private final int[] packedPoints;
+
+    /**
+     *  The points and the type of each segment for each rotation. The segments are ordered by the points of the
+     *  rotated tile, starting at point 0, which is the order in which the areas of a placed tile are assigned.
+     */
+    private final int[][] segmentPoints;
+    private final int[][] segmentTypes;
+
+    /**
+     *  Denotes a side of a cell without a neighbour in an edge signature.
+     */
+    static final int OPEN = 3;
+
+    /**
+     *  The rotations in which the type fits for each edge signature as a bitmask with bit r for rotation r.
+     */
+    private final byte[] legalRotations;
+
+    /**
+     *  The smallest rotation with the same points as the given rotation, for each rotation.
+     */
+    private final int[] canonicalRotations;
+
+    private TileType(int type) {
+        this.type = type;
+        this.middle = MIDDLES[type];
+        this.packedPoints = new int[4];
+
+        int packed = 0;
+
+        for (int point = 0; point < 12; point++) {
+            packed |= POINTS[type][point] << (2 * point);
+        }
+
+        for (int rotation = 0; rotation < 4; rotation++) {
+            packedPoints[rotation] = rotate(packed, rotation);
+        }
+
+        this.segmentPoints = new int[4][];
+        this.segmentTypes = new int[4][];
+
+        for (int rotation = 0; rotation < 4; rotation++) {
+            segmentPoints[rotation] = computeSegments(packedPoints[rotation]);
+            segmentTypes[rotation] = new int[segmentPoints[rotation].length];
+
+            for (int segment = 0; segment < segmentPoints[rotation].length; segment++) {
+                int point = Integer.numberOfTrailingZeros(segmentPoints[rotation][segment]);
+                segmentTypes[rotation][segment] = point == 12 ? middle : getPoint(packedPoints[rotation], point);
+            }
+        }
+
+        this.canonicalRotations = new int[4];
+
+        for (int rotation = 0; rotation < 4; rotation++) {
+            int canonical = 0;
+
+            while (packedPoints[canonical] != packedPoints[rotation]) {
+                canonical++;
+            }
+
+            canonicalRotations[rotation] = canonical;
+        }
+
+        this.legalRotations = new byte[256];
+
+        for (int signature = 0; signature < 256; signature++) {
+            for (int rotation = 0; rotation < 4; rotation++) {
+                boolean fits = true;
+
+                for (int side = 0; side < 4; side++) {
+                    int edge = (signature >>> (2 * side)) & 3;
+
+                    if (edge != OPEN && edge != getPoint(packedPoints[rotation], side * 3 + 1)) {
+                        fits = false;
+                    }
+                }
+
+                if (fits) {
+                    legalRotations[signature] |= 1 << rotation;
+                }
+            }
+        }
+    }
+
+    /**
+     * The parameters are the types of the edges (0 grass, 1 city, 2 road) which a tile needs on the respective side of
+     * the cell, or OPEN if there's no neighbour on that side.
+     * @return The edge signature of the cell.
+     */
+    static int getSignature(int bottom, int right, int top, int left) {
+        return bottom | (right << 2) | (top << 4) | (left << 6);
+    }
+
+    /**
+     * Groups the points of a tile into segments. Adjacent points of the same type form a segment, and all segments
+     * of the same type as the middle are connected through the middle. A monastery is a segment of its own, which
+     * comes first.
+     * @param packed The packed points of the tile.
+     * @return The points of each segment.
+     */
+    private int[] computeSegments(int packed) {
+        List<Integer> segments = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+
+        segments.add(1);
+
+        int runner = 0;
+
+        if (getPoint(packed, 0) == middle) {
+            indices.add(runner);
+        }
+
+        for (int point = 0; point < 11; point++) {
+            if (getPoint(packed, point) == getPoint(packed, point + 1)) {
+                segments.set(runner, segments.get(runner) | (1 << point) | (1 << (point + 1)));
+            } else {
+                runner++;
+                segments.add(1 << (point + 1));
+
+                if (getPoint(packed, point + 1) == middle) {
+                    indices.add(runner);
+                }
+            }
+        }
+
+        if (getPoint(packed, 11) == getPoint(packed, 0) && runner > 0) {
+            segments.set(0, segments.get(0) | segments.get(runner));
+            segments.remove(runner);
+
+            if (indices.contains(segments.size())) {
+                indices.remove(indices.size() - 1);
+            }
+        }
+
+        // Merge all segments of the type corresponding to the middle.
+        for (int i = 1; i < indices.size(); i++) {
+            segments.set(indices.get(0), segments.get(indices.get(0)) | segments.get(indices.get(i)));
+            int index = indices.get(i);
+            segments.remove(index);
+        }
+
+        // The middle belongs to the segment of the first point of its type.
+        for (int point = 0; point < 12; point++) {
+            if (getPoint(packed, point) == middle) {
+                for (int i = 0; i < segments.size(); i++) {
+                    if ((segments.get(i) & (1 << point)) != 0) {
+                        segments.set(i, segments.get(i) | (1 << 12));
+                    }
+                }
+
+                break;
+            }
+        }
+
+        // Type 15 is the only tile with a road which doesn't go through the middle. Its two road ends are connected
+        // nonetheless.
+        if (type == 15) {
+            int road = -1;
+
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                if (getPoint(packed, Integer.numberOfTrailingZeros(segments.get(i))) == 2) {
+                    if (road != -1) {
+                        segments.set(i, segments.get(i) | segments.get(road));
+                        segments.remove(road);
+                    }
+
+                    road = i;
+                }
+            }
+        }
+
+        if (middle == 4) {
+            segments.add(0, 1 << 12);
+        }
+
+        int[] output = new int[segments.size()];
+
+        for (int i = 0; i < output.length; i++) {
+            output[i] = segments.get(i);
+        }
+
+        return output;
+    }
+
+    /**
+     * @param type The type of the tile, see the constructor of Tile for a list of all types.
+     * @return The shared instance of the given type.
+     */
+    static TileType get(int type) {
+        if (type < 0 || type >= TYPES.length) {
+            Engine.printError("Invalid tile added to deck.");
+            System.exit(1);
+        }
+
+        return TYPES[type];
+    }
+
+    /**
+     * @param packed Packed points.
+     * @param rotation The factor of 90 degrees by which the points are rotated counterclockwise.
+     * @return The packed points after the rotation, where point i has moved to point i + 3 * rotation (mod 12).
+     */
+    static int rotate(int packed, int rotation) {
+        int shift = 6 * rotation;
+
+        return ((packed << shift) | (packed >>> (24 - shift))) & 0xFFFFFF;
+    }
+
+    /**
+     * @param packed Packed points.
+     * @param point The point in {0, ..., 11}.
+     * @return The type of the point.
+     */
+    static int getPoint(int packed, int point) {
+        return (packed >>> (2 * point)) & 3;
+    }
+
+    int getType() {
+        return type;
+    }
+
+    int getMiddle() {
+        return middle;
+    }
+
+    int getPackedPoints(int rotation) {
+        return packedPoints[rotation];
+    }
+
+    int getNumSegments(int rotation) {
+        return segmentPoints[rotation].length;
+    }
+
+    /**
+     * @param rotation The rotation of the tile.
+     * @param segment The index of the segment.
+     * @return The points of the segment as a bitmask, where bit 12 denotes the middle.
+     */
+    int getSegmentPoints(int rotation, int segment) {
+        return segmentPoints[rotation][segment];
+    }
+
+    /**
+     * @param signature The edge signature of an empty cell.
+     * @return The rotations in which the type fits onto the cell as a bitmask with bit r for rotation r.
+     */
+    int getLegalRotations(int signature) {
+        return legalRotations[signature];
+    }
+
+    /**
+     * @param rotation A rotation of the tile.
+     * @return The smallest rotation which results in the same tile as the given one.
+     */
+    int getCanonicalRotation(int rotation) {
+        return canonicalRotations[rotation];
+    }
+
+    /**
+     * @return The rotations which are canonical (see getCanonicalRotation()) as a bitmask with bit r for rotation r.
+     */
+    int getDistinctRotations() {
+        int rotations = 0;
+
+        for (int rotation = 0; rotation < 4; rotation++) {
+            if (canonicalRotations[rotation] == rotation) {
+                rotations |= 1 << rotation;
+            }
+        }
+
+        return rotations;
+    }
+
+    /**
+     * @param rotation The rotation of the tile.
+     * @param segment The index of the segment.
+     * @return The type of the points of the segment: 0 field, 1 city, 2 road, 4 monastery.
+     */
+    int getSegmentType(int rotation, int segment) {
+        return segmentTypes[rotation][segment];
+    }
+}
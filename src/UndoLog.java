@@ -0,0 +1,123 @@
+import java.util.Arrays;
+
+/**
+ * A journal of the changes made to a GameState, such that they can be reverted in reverse order. Each entry consists
+ * of a kind, an optional object reference (e.g. the tile whose meeple was removed) and two integers whose meaning
+ * depends on the kind. The entries are stored in parallel arrays which only grow, such that recording and reverting
+ * changes doesn't allocate any objects once the journal has reached its working size.
+ */
+class UndoLog {
+
+    static final int TILE_PLACED = 0;
+    static final int TILE_MEEPLE = 1;
+    static final int TILE_ROTATION = 2;
+    static final int INT_ARRAY = 3;
+    static final int AREA_COUNTER = 4;
+    static final int SCORE = 5;
+    static final int NUM_MEEPLES = 6;
+    static final int DECK_SIZE = 7;
+    static final int HASH = 8;
+
+    private int[] kinds;
+    private Object[] references;
+    private int[] firstValues;
+    private int[] secondValues;
+    private int size;
+
+    /**
+     *  The sizes of the journal at the points to which undo() reverts, with the most recent on top.
+     */
+    private int[] marks;
+    private int numMarks;
+
+    UndoLog() {
+        kinds = new int[64];
+        references = new Object[64];
+        firstValues = new int[64];
+        secondValues = new int[64];
+        marks = new int[16];
+    }
+
+    /**
+     * @return True if at least one mark has been set, i.e., if the changes to the state need to be recorded.
+     */
+    boolean isRecording() {
+        return numMarks > 0;
+    }
+
+    void mark() {
+        if (numMarks == marks.length) {
+            marks = Arrays.copyOf(marks, marks.length * 2);
+        }
+
+        marks[numMarks++] = size;
+    }
+
+    /**
+     * Removes the most recent mark.
+     * @return The index of the first entry recorded after the most recent mark.
+     */
+    int popMark() {
+        if (numMarks == 0) {
+            throw new IllegalStateException("There is no change which could be undone.");
+        }
+
+        return marks[--numMarks];
+    }
+
+    void record(int kind, Object reference, int firstValue, int secondValue) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            references = Arrays.copyOf(references, capacity);
+            firstValues = Arrays.copyOf(firstValues, capacity);
+            secondValues = Arrays.copyOf(secondValues, capacity);
+        }
+
+        kinds[size] = kind;
+        references[size] = reference;
+        firstValues[size] = firstValue;
+        secondValues[size] = secondValue;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Discards all entries from the given index onwards.
+     * @param newSize The number of entries which are kept.
+     */
+    void truncate(int newSize) {
+        for (int i = newSize; i < size; i++) {
+            references[i] = null;
+        }
+
+        size = newSize;
+    }
+
+    /**
+     * Discards all entries and marks.
+     */
+    void clear() {
+        truncate(0);
+        numMarks = 0;
+    }
+
+    int getKind(int index) {
+        return kinds[index];
+    }
+
+    Object getReference(int index) {
+        return references[index];
+    }
+
+    int getFirstValue(int index) {
+        return firstValues[index];
+    }
+
+    int getSecondValue(int index) {
+        return secondValues[index];
+    }
+}
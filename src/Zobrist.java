@@ -0,0 +1,53 @@
+/**
+ * The random keys for Zobrist hashing of game states. The hash of a state is the XOR of the keys of its features (a
+ * tile of some type and rotation on some cell, a meeple of some player on some point of a cell and the player whose
+ * turn it is), so it can be updated in constant time whenever a feature is added or removed. Instead of storing a
+ * table of random numbers, each key is derived from the index of its feature by the SplitMix64 finaliser, which is
+ * just as well distributed and doesn't take up any memory.
+ */
+final class Zobrist {
+
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    private static final int TILE_FEATURES = Board.SIZE * Board.SIZE * TileType.NUM_TYPES * 4 * 2;
+    private static final int MEEPLE_FEATURES = Board.SIZE * Board.SIZE * 13 * 2;
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param cell The absolute cell index of the tile.
+     * @param type The type of the tile.
+     * @param rotation The canonical rotation of the tile, such that rotations which result in the same tile have the
+     *                 same key.
+     * @param pennant True if the tile has a pennant.
+     * @return The key of the tile.
+     */
+    static long tile(int cell, int type, int rotation, boolean pennant) {
+        return mix(((cell * TileType.NUM_TYPES + type) * 4 + rotation) * 2 + (pennant ? 1 : 0));
+    }
+
+    /**
+     * @param cell The absolute cell index of the tile carrying the meeple.
+     * @param point The point of the rotated tile on which the meeple stands.
+     * @param player The ID of the player to whom the meeple belongs.
+     * @return The key of the meeple.
+     */
+    static long meeple(int cell, int point, int player) {
+        return mix(TILE_FEATURES + (cell * 13 + point) * 2 + player - 1);
+    }
+
+    /**
+     * @return The key which is part of the hash if it's the turn of player 2.
+     */
+    static long secondPlayer() {
+        return mix(TILE_FEATURES + MEEPLE_FEATURES);
+    }
+
+    private static long mix(long feature) {
+        long z = SEED + (feature + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}